@@ -0,0 +1,15 @@
+package stannieman.rest;
+
+import java.util.List;
+
+/**
+ * Data class of the items in the benchmark payloads.
+ */
+public class Item {
+    public long id;
+    public String name;
+    public String description;
+    public double price;
+    public boolean available;
+    public List<String> tags;
+}
@@ -0,0 +1,56 @@
+package stannieman.rest;
+
+import com.android.volley.Header;
+import com.android.volley.NetworkResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Benchmarks serializing request bodies and deserializing responses with the cached readers and writers of the library.
+ */
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    @Param
+    public Payload payload;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Item[] items;
+    private byte[] json;
+    private NetworkResponse response;
+
+    @Setup
+    public void setUp() {
+        JsonCodecCache jsonCodecCache = new JsonCodecCache(new ObjectMapper());
+        writer = jsonCodecCache.getWriter(Item[].class);
+        reader = jsonCodecCache.getReader(Item[].class);
+        items = payload.createItems();
+        json = payload.createJson();
+        response = new NetworkResponse(200, json, false, 0, Collections.singletonList(new Header("Content-Type", "application/json; charset=UTF-8")));
+    }
+
+    @Benchmark
+    public byte[] serializeBody() throws IOException {
+        return writer.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public Item[] deserializeResponse() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public String parseToString() {
+        return NetworkResponseRequest.parseToString(response);
+    }
+}
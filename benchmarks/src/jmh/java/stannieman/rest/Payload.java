@@ -0,0 +1,44 @@
+package stannieman.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An enum of the payload sizes the benchmarks use, from one item to a multi-MB array.
+ */
+public enum Payload {
+    SMALL(1),
+    MEDIUM(100),
+    LARGE(20000);
+
+    private final int itemCount;
+
+    Payload(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public Item[] createItems() {
+        Item[] items = new Item[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            Item item = new Item();
+            item.id = i;
+            item.name = "Item " + i;
+            item.description = "Description of item " + i + " with some text that is typical for a product listing.";
+            item.price = i * 1.25;
+            item.available = i % 3 != 0;
+            item.tags = Arrays.asList("tag" + i % 10, "category" + i % 7, "new");
+            items[i] = item;
+        }
+        return items;
+    }
+
+    public byte[] createJson() {
+        try {
+            return new ObjectMapper().writeValueAsBytes(createItems());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package stannieman.rest;
+
+import com.android.volley.Network;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.HurlStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.RequestArguments;
+import stannieman.rest.models.RequestProperties;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Benchmarks full synchronous requests, either against a network that answers without I/O or against an in-process HTTP server.
+ */
+@State(Scope.Benchmark)
+public class RequestBenchmark {
+    public enum Transport {
+        STUB_NETWORK,
+        LOCAL_HTTP
+    }
+
+    @Param
+    public Transport transport;
+
+    @Param
+    public Payload payload;
+
+    private LocalHttpServer server;
+    private RestClientFixture fixture;
+    private RestClientBase client;
+    private CompiledRequest<Item[], ErrorResponseDataBase> getRequest;
+    private CompiledRequest<Void, ErrorResponseDataBase> postRequest;
+    private RequestArguments getArguments;
+    private RequestArguments postArguments;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] json = payload.createJson();
+        Network network;
+        if (transport == Transport.LOCAL_HTTP) {
+            server = new LocalHttpServer(json);
+            network = new BasicNetwork(new HurlStack());
+            fixture = new RestClientFixture(network, server.getHost(), server.getPort());
+        }
+        else {
+            network = new StubNetwork(json);
+            fixture = new RestClientFixture(network, "example.com", 80);
+        }
+        client = fixture.getClient();
+
+        RequestProperties<Item[], ErrorResponseDataBase> getProperties = new RequestProperties<>();
+        getProperties.setSuccessResponseDataType(Item[].class);
+        getProperties.setSubPath("%s");
+        getRequest = client.compile(HttpMethod.GET, getProperties);
+        getArguments = new RequestArguments();
+        getArguments.setSubPathParameters(new String[] { "all" });
+
+        RequestProperties<Void, ErrorResponseDataBase> postProperties = new RequestProperties<>();
+        postRequest = client.compile(HttpMethod.POST, postProperties);
+        postArguments = new RequestArguments();
+        postArguments.setBody(payload.createItems());
+
+        // A failing setup would otherwise measure how fast requests fail.
+        if (!get().isSuccess() || !post().isSuccess()) {
+            throw new IllegalStateException("Benchmark request failed.");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.stop();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public IHasDataAndSuccessState<RestResult<Item[], ErrorResponseDataBase>> get() {
+        return client.execute(getRequest, getArguments);
+    }
+
+    @Benchmark
+    public IHasDataAndSuccessState<RestResult<Void, ErrorResponseDataBase>> post() {
+        return client.execute(postRequest, postArguments);
+    }
+}
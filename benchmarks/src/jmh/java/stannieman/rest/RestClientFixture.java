@@ -0,0 +1,52 @@
+package stannieman.rest;
+
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.Network;
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.NoCache;
+
+import java.util.concurrent.Executor;
+
+import stannieman.rest.models.SimpleRestClientFactoryConfig;
+
+/**
+ * A REST client with its own request queue, created the way an app does it, but with responses delivered
+ * on the network thread instead of the Android main thread.
+ */
+public class RestClientFixture {
+    private static final int NETWORK_THREAD_POOL_SIZE = 4;
+
+    private final RequestQueue requestQueue;
+    private final RestClientBase client;
+
+    public RestClientFixture(Network network, String host, int port) {
+        requestQueue = new RequestQueue(new NoCache(), network, NETWORK_THREAD_POOL_SIZE, new ExecutorDelivery(new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        }));
+        requestQueue.start();
+
+        SimpleRestClientFactoryConfig config = new SimpleRestClientFactoryConfig();
+        config.setRequestQueue(requestQueue);
+        config.setScheme(Scheme.HTTP);
+        config.setHost(host);
+        config.setPort(port);
+        config.setApiBasePath("api");
+        config.setTimeout(30000);
+
+        // The context is only used to create a request queue, which the config provides.
+        SimpleRestClientFactory factory = new SimpleRestClientFactory(null);
+        factory.loadConfig(config);
+        client = (RestClientBase) factory.getRestClient("items");
+    }
+
+    public RestClientBase getClient() {
+        return client;
+    }
+
+    public void stop() {
+        requestQueue.stop();
+    }
+}
@@ -0,0 +1,28 @@
+package stannieman.rest;
+
+import com.android.volley.Header;
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Network that answers every request with the same JSON body without any I/O,
+ * so a full request only measures the library and Volley.
+ */
+public class StubNetwork implements Network {
+    private static final List<Header> HEADERS = Collections.singletonList(new Header("Content-Type", "application/json; charset=UTF-8"));
+
+    private final byte[] body;
+
+    public StubNetwork(byte[] body) {
+        this.body = body;
+    }
+
+    @Override
+    public NetworkResponse performRequest(Request<?> request) {
+        return new NetworkResponse(200, body, false, 0, HEADERS);
+    }
+}
@@ -0,0 +1,62 @@
+package stannieman.rest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.UnsupportedEncodingException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+
+import stannieman.rest.helpers.QueryParamsHelper;
+import stannieman.rest.models.RouteTemplate;
+
+/**
+ * Benchmarks building the URI of a request, with a route template and with a sub path that is formatted on every call.
+ */
+@State(Scope.Benchmark)
+public class UriBenchmark {
+    private static final String SUB_PATH = "users/%s/orders/%s";
+
+    private RestClientFixture fixture;
+    private RestClientBase client;
+    private RouteTemplate routeTemplate;
+    private String[] subPathParameters;
+    private List<AbstractMap.SimpleEntry<String, String>> queryParameters;
+
+    @Setup
+    public void setUp() {
+        fixture = new RestClientFixture(new StubNetwork(new byte[0]), "example.com", 8080);
+        client = fixture.getClient();
+        routeTemplate = RouteTemplate.compile(SUB_PATH);
+        subPathParameters = new String[] { "jane.doe@example.com", "2018/0042" };
+        queryParameters = new ArrayList<>();
+        queryParameters.add(new AbstractMap.SimpleEntry<>("q", "red shoes & socks"));
+        queryParameters.add(new AbstractMap.SimpleEntry<>("page", "2"));
+        queryParameters.add(new AbstractMap.SimpleEntry<>("sort", "price desc"));
+        queryParameters.add(new AbstractMap.SimpleEntry<>("filter", "size=42/eu"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public String routeTemplate() {
+        return client.getUriString(routeTemplate, null, subPathParameters, queryParameters).getData();
+    }
+
+    @Benchmark
+    public String formattedSubPath() {
+        return client.getUriString(null, SUB_PATH, subPathParameters, queryParameters).getData();
+    }
+
+    @Benchmark
+    public String queryString() throws UnsupportedEncodingException {
+        return QueryParamsHelper.getQueryString(queryParameters, "UTF-8");
+    }
+}
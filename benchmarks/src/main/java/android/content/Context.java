@@ -0,0 +1,10 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM version of the Context methods the library uses.
+ */
+public abstract class Context {
+    public abstract File getCacheDir();
+}
@@ -0,0 +1,9 @@
+package android.net;
+
+/**
+ * JVM version of the TrafficStats methods Volley uses, which do nothing.
+ */
+public class TrafficStats {
+    public static void setThreadStatsTag(int tag) {
+    }
+}
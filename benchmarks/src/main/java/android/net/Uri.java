@@ -0,0 +1,26 @@
+package android.net;
+
+import java.net.URI;
+
+/**
+ * JVM version of the Uri methods Volley uses.
+ */
+public final class Uri {
+    private final String host;
+
+    private Uri(String host) {
+        this.host = host;
+    }
+
+    public static Uri parse(String uriString) {
+        try {
+            return new Uri(URI.create(uriString).getHost());
+        } catch (IllegalArgumentException e) {
+            return new Uri(null);
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM version of the Build fields Volley uses.
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 27;
+    }
+
+    public static class VERSION_CODES {
+        public static final int GINGERBREAD = 9;
+        public static final int ICE_CREAM_SANDWICH = 14;
+    }
+}
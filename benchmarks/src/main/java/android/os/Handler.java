@@ -0,0 +1,25 @@
+package android.os;
+
+/**
+ * JVM version of the Handler methods the library and Volley use.
+ */
+public class Handler {
+    private final Looper looper;
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        return postDelayed(runnable, 0);
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        looper.schedule(runnable, delayMillis);
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        looper.remove(runnable);
+    }
+}
@@ -0,0 +1,81 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM version of the Looper methods the library and Volley use.
+ * The main looper runs its runnables on a single daemon thread.
+ */
+public final class Looper {
+    private static final Looper MAIN_LOOPER = new Looper();
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<Runnable, List<Future<?>>> scheduledRunnables = new HashMap<>();
+    private volatile Thread thread;
+
+    private Looper() {
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                thread = new Thread(runnable, "main");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN_LOOPER;
+    }
+
+    public static Looper myLooper() {
+        return Thread.currentThread() == MAIN_LOOPER.thread ? MAIN_LOOPER : null;
+    }
+
+    void schedule(final Runnable runnable, long delayMillis) {
+        synchronized (scheduledRunnables) {
+            Future<?> future = executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (scheduledRunnables) {
+                        List<Future<?>> futures = scheduledRunnables.get(runnable);
+                        if (futures != null && futures.size() == 1) {
+                            scheduledRunnables.remove(runnable);
+                        }
+                        else if (futures != null) {
+                            futures.remove(0);
+                        }
+                    }
+                    runnable.run();
+                }
+            }, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+
+            List<Future<?>> futures = scheduledRunnables.get(runnable);
+            if (futures == null) {
+                futures = new ArrayList<>(1);
+                scheduledRunnables.put(runnable, futures);
+            }
+            futures.add(future);
+        }
+    }
+
+    void remove(Runnable runnable) {
+        List<Future<?>> futures;
+        synchronized (scheduledRunnables) {
+            futures = scheduledRunnables.remove(runnable);
+        }
+        if (futures != null) {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+}
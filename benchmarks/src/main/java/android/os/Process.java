@@ -0,0 +1,11 @@
+package android.os;
+
+/**
+ * JVM version of the Process methods Volley uses. Thread priorities are left to the JVM.
+ */
+public class Process {
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+
+    public static void setThreadPriority(int priority) {
+    }
+}
@@ -0,0 +1,15 @@
+package android.os;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM version of the SystemClock methods Volley uses.
+ */
+public final class SystemClock {
+    private SystemClock() {
+    }
+
+    public static long elapsedRealtime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
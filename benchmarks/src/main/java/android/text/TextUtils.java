@@ -0,0 +1,10 @@
+package android.text;
+
+/**
+ * JVM version of the TextUtils methods Volley uses.
+ */
+public class TextUtils {
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
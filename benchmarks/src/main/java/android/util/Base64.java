@@ -0,0 +1,15 @@
+package android.util;
+
+/**
+ * JVM version of the Base64 methods the library uses.
+ */
+public final class Base64 {
+    public static final int NO_WRAP = 2;
+
+    private Base64() {
+    }
+
+    public static String encodeToString(byte[] input, int flags) {
+        return java.util.Base64.getEncoder().encodeToString(input);
+    }
+}
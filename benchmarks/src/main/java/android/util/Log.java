@@ -0,0 +1,43 @@
+package android.util;
+
+/**
+ * JVM version of the Log methods Volley uses. Only errors are printed, so logging does not show up in the benchmarks.
+ */
+public final class Log {
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+
+    private Log() {
+    }
+
+    public static boolean isLoggable(String tag, int level) {
+        return false;
+    }
+
+    public static int v(String tag, String msg) {
+        return 0;
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        System.err.println(tag + ": " + msg);
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        System.err.println(tag + ": " + msg);
+        tr.printStackTrace();
+        return 0;
+    }
+
+    public static int wtf(String tag, String msg) {
+        return e(tag, msg);
+    }
+
+    public static int wtf(String tag, String msg, Throwable tr) {
+        return e(tag, msg, tr);
+    }
+}
@@ -0,0 +1,139 @@
+package stannieman.rest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import stannieman.commonservices.models.DataServiceResult;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.BatchItemResult;
+import stannieman.rest.models.BatchRequestItem;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Runs the requests of a batch with at most a given number of them in flight.
+ * A new request is started each time a request finishes, so a slow request does not hold up the others.
+ */
+final class BatchExecution {
+    /**
+     * Starts a single request of a batch.
+     */
+    interface ItemStarter {
+        RestFuture<? extends IHasDataAndSuccessState<? extends RestResult<?, ?>>> start(BatchRequestItem item);
+    }
+
+    private final List<BatchRequestItem> items;
+    private final int maxParallelism;
+    private final ItemStarter itemStarter;
+    private final RestFuture<List<BatchItemResult>> future = new RestFuture<>();
+    private final BatchItemResult[] results;
+    private final RestFuture<?>[] inFlightFutures;
+
+    private long startNanos;
+    private int nextIndex;
+    private int completedCount;
+
+    BatchExecution(List<BatchRequestItem> items, int maxParallelism, ItemStarter itemStarter) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("Max parallelism must be at least 1 but is " + maxParallelism);
+        }
+        this.items = items;
+        this.maxParallelism = maxParallelism;
+        this.itemStarter = itemStarter;
+        results = new BatchItemResult[items.size()];
+        inFlightFutures = new RestFuture<?>[items.size()];
+    }
+
+    /**
+     * Starts the first requests of the batch.
+     * Cancelling the returned future cancels the requests that are in flight and does not start the remaining ones.
+     * @return future that completes with the results in the order of the requests
+     */
+    RestFuture<List<BatchItemResult>> start() {
+        startNanos = System.nanoTime();
+        if (items.isEmpty()) {
+            future.complete(Collections.<BatchItemResult>emptyList());
+            return future;
+        }
+
+        future.addListener(new IRestFutureListener<List<BatchItemResult>>() {
+            @Override
+            public void onDone(RestFuture<List<BatchItemResult>> doneFuture) {
+                if (doneFuture.isCancelled()) {
+                    cancelInFlightFutures();
+                }
+            }
+        });
+
+        int initialCount = Math.min(maxParallelism, items.size());
+        for (int i = 0; i < initialCount; i++) {
+            startNextItem();
+        }
+        return future;
+    }
+
+    private void startNextItem() {
+        final int index;
+        synchronized (this) {
+            if (nextIndex >= items.size() || future.isDone()) {
+                return;
+            }
+            index = nextIndex++;
+        }
+
+        final long itemStartNanos = System.nanoTime();
+        RestFuture<? extends IHasDataAndSuccessState<? extends RestResult<?, ?>>> itemFuture;
+        try {
+            itemFuture = itemStarter.start(items.get(index));
+        } catch (RuntimeException e) {
+            onItemDone(index, itemStartNanos, null);
+            return;
+        }
+
+        synchronized (this) {
+            inFlightFutures[index] = itemFuture;
+        }
+        addItemListener(itemFuture, index, itemStartNanos);
+    }
+
+    private <ResultType extends IHasDataAndSuccessState<? extends RestResult<?, ?>>> void addItemListener(RestFuture<ResultType> itemFuture, final int index, final long itemStartNanos) {
+        itemFuture.addListener(new IRestFutureListener<ResultType>() {
+            @Override
+            public void onDone(RestFuture<ResultType> doneFuture) {
+                onItemDone(index, itemStartNanos, doneFuture.getNow(null));
+            }
+        });
+    }
+
+    private void onItemDone(int index, long itemStartNanos, IHasDataAndSuccessState<? extends RestResult<?, ?>> result) {
+        long endNanos = System.nanoTime();
+        if (result == null) {
+            result = new DataServiceResult<RestResult<?, ?>, RestClientResultCodes>(RestClientResultCodes.REQUEST_FAILED);
+        }
+
+        boolean isLastItem;
+        synchronized (this) {
+            results[index] = new BatchItemResult(result, itemStartNanos - startNanos, endNanos - itemStartNanos);
+            inFlightFutures[index] = null;
+            isLastItem = ++completedCount == results.length;
+        }
+
+        if (isLastItem) {
+            future.complete(Collections.unmodifiableList(Arrays.asList(results)));
+        } else {
+            startNextItem();
+        }
+    }
+
+    private void cancelInFlightFutures() {
+        RestFuture<?>[] futuresToCancel;
+        synchronized (this) {
+            futuresToCancel = inFlightFutures.clone();
+        }
+        for (RestFuture<?> inFlightFuture : futuresToCancel) {
+            if (inFlightFuture != null) {
+                inFlightFuture.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package stannieman.rest;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import stannieman.rest.helpers.PathHelper;
+import stannieman.rest.models.ArrayStreamingOptions;
+import stannieman.rest.models.CachePolicy;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.HedgingOptions;
+import stannieman.rest.models.RetryOptions;
+import stannieman.rest.models.RouteTemplate;
+
+/**
+ * Immutable description of a request, compiled once from RequestProperties by a REST client.
+ * It holds the resolved response data types, the compiled sub path, the success status codes as a bitset
+ * and the merged default, client and request headers, so executing it needs almost no per-call setup.
+ * A compiled request is thread-safe and should only be executed by the client that compiled it.
+ * @param <SuccessResponseDataType> response data type for a successful call
+ * @param <ErrorResponseDataType> response data type for an unsuccessful call
+ */
+public final class CompiledRequest<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> {
+    private static final int DEFAULT_SUCCESS_STATUS_CODES_MIN = 200;
+    private static final int DEFAULT_SUCCESS_STATUS_CODES_MAX = 299;
+
+    private final HttpMethod method;
+    private final Class<SuccessResponseDataType> successResponseDataType;
+    private final Class<ErrorResponseDataType> errorResponseDataType;
+    private final RouteTemplate routeTemplate;
+    private final String subPath;
+    private final BitSet successStatusCodes;
+    private final Map<String, String> headers;
+    private final ArrayStreamingOptions<?> arrayStreamingOptions;
+    private final int bodyCompressionThreshold;
+    private final Map<String, String> compressedBodyHeaders;
+    private final CachePolicy cachePolicy;
+    private final boolean responseObjectCacheEnabled;
+    private final boolean coalescingEnabled;
+    private final RequestPriority priority;
+    private final RetryOptions retryOptions;
+    private final HedgingOptions hedgingOptions;
+    private final String endpoint;
+
+    CompiledRequest(HttpMethod method, Class<SuccessResponseDataType> successResponseDataType, Class<ErrorResponseDataType> errorResponseDataType, RouteTemplate routeTemplate, String subPath, Integer[] successStatusCodes, Map<String, String> headers, ArrayStreamingOptions<?> arrayStreamingOptions, int bodyCompressionThreshold, Map<String, String> compressedBodyHeaders, CachePolicy cachePolicy, boolean responseObjectCacheEnabled, boolean coalescingEnabled, RequestPriority priority, RetryOptions retryOptions, HedgingOptions hedgingOptions) {
+        this.method = method;
+        this.successResponseDataType = successResponseDataType;
+        this.errorResponseDataType = errorResponseDataType;
+        this.routeTemplate = routeTemplate;
+        this.subPath = subPath;
+        this.successStatusCodes = getStatusCodeBitSet(successStatusCodes);
+        this.headers = headers;
+        this.arrayStreamingOptions = arrayStreamingOptions;
+        this.bodyCompressionThreshold = bodyCompressionThreshold;
+        this.compressedBodyHeaders = compressedBodyHeaders;
+        this.cachePolicy = cachePolicy;
+        this.responseObjectCacheEnabled = responseObjectCacheEnabled;
+        this.coalescingEnabled = coalescingEnabled;
+        this.priority = priority;
+        this.retryOptions = retryOptions;
+        this.hedgingOptions = hedgingOptions;
+        // The same key as the request metrics use for an endpoint.
+        this.endpoint = method.name() + ' ' + (subPath != null ? PathHelper.stripSlashes(subPath) : "");
+    }
+
+    /**
+     * Gets the HTTP method of the request.
+     * @return HTTP method
+     */
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the response data type for a successful call.
+     * @return response data type
+     */
+    public Class<SuccessResponseDataType> getSuccessResponseDataType() {
+        return successResponseDataType;
+    }
+
+    /**
+     * Gets the response data type for an unsuccessful call.
+     * @return response data type
+     */
+    public Class<ErrorResponseDataType> getErrorResponseDataType() {
+        return errorResponseDataType;
+    }
+
+    /**
+     * Gets the route template the caller set on the request properties.
+     * @return route template or null if none was set, in which case the sub path is formatted on every call
+     */
+    public RouteTemplate getRouteTemplate() {
+        return routeTemplate;
+    }
+
+    /**
+     * Gets the headers of the request, including the default and client headers.
+     * @return unmodifiable map of headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets how the request uses the response cache.
+     * @return cache policy, which is NO_CACHE for requests other than GET
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * Gets whether the deserialized success object is cached in memory.
+     * @return whether the response object cache is used
+     */
+    public boolean isResponseObjectCacheEnabled() {
+        return responseObjectCacheEnabled;
+    }
+
+    /**
+     * Gets whether the request shares the result of an identical request that is in flight.
+     * @return whether the request is coalesced
+     */
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    /**
+     * Gets the priority of the request in the request queue.
+     * @return request priority
+     */
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets how the request is retried.
+     * @return retry options or null if the retry options of the config are used
+     */
+    public RetryOptions getRetryOptions() {
+        return retryOptions;
+    }
+
+    /**
+     * Gets when a duplicate of the request is sent.
+     * @return hedging options or null if the request is not hedged
+     */
+    public HedgingOptions getHedgingOptions() {
+        return hedgingOptions;
+    }
+
+    String getSubPath() {
+        return subPath;
+    }
+
+    /**
+     * Gets the HTTP method and sub path before its parameters are filled in, which identify the endpoint of the request.
+     */
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    ArrayStreamingOptions<?> getArrayStreamingOptions() {
+        return arrayStreamingOptions;
+    }
+
+    BitSet getSuccessStatusCodes() {
+        return successStatusCodes;
+    }
+
+    Map<String, String> getCompressedBodyHeaders() {
+        return compressedBodyHeaders;
+    }
+
+    /**
+     * Checks whether a body is large enough to be sent gzipped.
+     * @param body serialized body, may be null
+     * @return whether the body should be compressed
+     */
+    boolean shouldCompressBody(byte[] body) {
+        return bodyCompressionThreshold > 0 && body != null && body.length >= bodyCompressionThreshold;
+    }
+
+    /**
+     * Checks whether a status code means the request was successful.
+     * @param statusCode HTTP status code
+     * @return whether the status code is one of the success status codes, or in the 200 range if none were set
+     */
+    public boolean isSuccessStatusCode(int statusCode) {
+        if (successStatusCodes == null) {
+            return statusCode >= DEFAULT_SUCCESS_STATUS_CODES_MIN && statusCode <= DEFAULT_SUCCESS_STATUS_CODES_MAX;
+        }
+
+        return statusCode >= 0 && successStatusCodes.get(statusCode);
+    }
+
+    private static BitSet getStatusCodeBitSet(Integer[] statusCodes) {
+        if (statusCodes == null) {
+            return null;
+        }
+
+        BitSet bitSet = new BitSet();
+        for (Integer statusCode : statusCodes) {
+            if (statusCode != null && statusCode >= 0) {
+                bitSet.set(statusCode);
+            }
+        }
+        return bitSet;
+    }
+}
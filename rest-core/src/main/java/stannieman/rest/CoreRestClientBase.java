@@ -0,0 +1,680 @@
+package stannieman.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import stannieman.commonservices.helpers.ResultCodeHelper;
+import stannieman.commonservices.models.DataServiceResult;
+import stannieman.commonservices.models.GeneralResultCodes;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.helpers.CharsetHelper;
+import stannieman.rest.helpers.CompressionHelper;
+import stannieman.rest.helpers.PathHelper;
+import stannieman.rest.helpers.QueryParamsHelper;
+import stannieman.rest.models.ArrayStreamingOptions;
+import stannieman.rest.models.BatchItemResult;
+import stannieman.rest.models.BatchRequestItem;
+import stannieman.rest.models.CachePolicy;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.IArrayElementsListener;
+import stannieman.rest.models.RequestArguments;
+import stannieman.rest.models.RequestProperties;
+import stannieman.rest.models.ResponseSource;
+import stannieman.rest.models.RestResult;
+import stannieman.rest.models.RouteTemplate;
+
+import static stannieman.rest.RestClientResultCodes.CANNOT_CREATE_URI;
+
+/**
+ * Base of the REST clients that compiles requests, builds their URIs, serializes their bodies and converts their responses,
+ * independent of the transport that performs the requests.
+ * A transport implements the network call of a synchronous request and the asynchronous requests.
+ */
+abstract class CoreRestClientBase implements IRestClient {
+    private static final String ENCODING = "UTF-8";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+    private static final Map<String, String> REQUEST_DEFAULT_HEADERS;
+    static {
+        Map<String, String> requestDefaultHeaders = new HashMap<>();
+        requestDefaultHeaders.put("Accept-Type", "application/json; charset=" + ENCODING);
+        requestDefaultHeaders.put("Accept-Encoding", CompressionHelper.ACCEPT_ENCODING);
+        REQUEST_DEFAULT_HEADERS = Collections.unmodifiableMap(requestDefaultHeaders);
+    }
+
+    private final JsonCodecCache jsonCodecCache;
+
+    private final String host;
+    private final String uriPrefix;
+    private final long timeout;
+    private final int bodyCompressionThreshold;
+    private final ResponseObjectCache responseObjectCache;
+    private final RequestCoalescer requestCoalescer;
+    private final IRequestEventListener requestEventListener;
+    private final RequestMetrics requestMetrics;
+
+    protected CoreRestClientBase(JsonCodecCache jsonCodecCache, Scheme scheme, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, IRequestEventListener requestEventListener, RequestMetrics requestMetrics) {
+        this.jsonCodecCache = jsonCodecCache;
+
+        this.host = PathHelper.stripSlashes(host);
+        this.uriPrefix = getUriPrefix(scheme.name().toLowerCase(Locale.US), this.host, port, getAbsoluteEndpointPath(apiBasePath, endpointPath));
+        this.timeout = timeout;
+        this.bodyCompressionThreshold = bodyCompressionThreshold;
+        this.responseObjectCache = responseObjectCache;
+        this.requestCoalescer = requestCoalescer;
+        this.requestEventListener = getCombinedRequestEventListener(requestEventListener, requestMetrics);
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compile(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return compileRequest(method, requestProperties, requestProperties.getHeaders());
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> execute(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments) {
+        return executeRequest(compiledRequest, requestArguments.getSubPathParameters(), requestArguments.getQueryParameters(), requestArguments.getBody(), requestArguments.getTag());
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void executeAsync(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        executeRequestAsync(compiledRequest, requestArguments.getSubPathParameters(), requestArguments.getQueryParameters(), requestArguments.getBody(), requestArguments.getTag(), requestResponseListener);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeFuture(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments) {
+        return executeRequestFuture(compiledRequest, requestArguments.getSubPathParameters(), requestArguments.getQueryParameters(), requestArguments.getBody(), requestArguments.getTag());
+    }
+
+    @Override
+    public void executeBatchAsync(List<BatchRequestItem> items, int maxParallelism, final IBatchResponseListener batchResponseListener) {
+        executeBatchFuture(items, maxParallelism).addListener(new IRestFutureListener<List<BatchItemResult>>() {
+            @Override
+            public void onDone(RestFuture<List<BatchItemResult>> doneFuture) {
+                batchResponseListener.onBatchResponse(doneFuture.getNow(null));
+            }
+        });
+    }
+
+    @Override
+    public RestFuture<List<BatchItemResult>> executeBatchFuture(List<BatchRequestItem> items, int maxParallelism) {
+        return new BatchExecution(items, maxParallelism, new BatchExecution.ItemStarter() {
+            @Override
+            public RestFuture<? extends IHasDataAndSuccessState<? extends RestResult<?, ?>>> start(BatchRequestItem item) {
+                return executeBatchItemFuture(item.getMethod(), item.getRequestProperties());
+            }
+        }).start();
+    }
+
+    @Override
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    protected <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequest(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Map<String, String> headers) {
+        return executeRequest(compileRequest(method, requestProperties, headers), requestProperties.getSubPathParameters(), queryParameters, requestProperties.getBody(), requestProperties.getTag());
+    }
+
+    protected <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestAsync(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Map<String, String> headers, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        executeRequestAsync(compileRequest(method, requestProperties, headers), requestProperties.getSubPathParameters(), queryParameters, requestProperties.getBody(), requestProperties.getTag(), requestResponseListener);
+    }
+
+    protected <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doRequestFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Map<String, String> headers) {
+        return executeRequestFuture(compileRequest(method, requestProperties, headers), requestProperties.getSubPathParameters(), queryParameters, requestProperties.getBody(), requestProperties.getTag());
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeBatchItemFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return executeRequestFuture(compileRequest(method, requestProperties, requestProperties.getHeaders()), requestProperties.getSubPathParameters(), requestProperties.getQueryParameters(), requestProperties.getBody(), requestProperties.getTag());
+    }
+
+    /**
+     * Gets the request timeout in milliseconds.
+     * @return timeout
+     */
+    long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Gets the coalescer of identical requests in flight.
+     * @return request coalescer or null if requests are not coalesced
+     */
+    RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Gets a listener that hands request events to both the request event listener of the config and the request metrics.
+     * @return listener or null if there is neither
+     */
+    private static IRequestEventListener getCombinedRequestEventListener(final IRequestEventListener requestEventListener, final RequestMetrics requestMetrics) {
+        if (requestEventListener == null || requestMetrics == null) {
+            return requestEventListener != null ? requestEventListener : requestMetrics;
+        }
+        return new IRequestEventListener() {
+            @Override
+            public void onRequestFinished(RequestEvent requestEvent) {
+                requestMetrics.onRequestFinished(requestEvent);
+                requestEventListener.onRequestFinished(requestEvent);
+            }
+        };
+    }
+
+    /**
+     * Gets headers that are added to every request of this client, on top of the default headers and below the headers of the request itself.
+     * @return headers or null if there are none
+     */
+    protected Map<String, String> getClientHeaders() {
+        return null;
+    }
+
+    /**
+     * Checks whether the transport can hedge requests, which only compiled requests that are hedged need.
+     * @return whether requests can be hedged
+     */
+    boolean isHedgingAvailable() {
+        return false;
+    }
+
+    /**
+     * Resolves everything about a request that does not change between calls.
+     * The default, client and request headers are merged here once, so executing the request only copies references.
+     */
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compileRequest(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, Map<String, String> headers) {
+        Integer requestBodyCompressionThreshold = requestProperties.getBodyCompressionThreshold();
+        int compressionThreshold = requestBodyCompressionThreshold != null ? requestBodyCompressionThreshold : bodyCompressionThreshold;
+
+        Map<String, String> mergedHeaders = getMergedHeaders(headers);
+        Map<String, String> compressedBodyHeaders = null;
+        if (compressionThreshold > 0) {
+            compressedBodyHeaders = new HashMap<>(mergedHeaders);
+            compressedBodyHeaders.put(CONTENT_ENCODING_HEADER, CompressionHelper.GZIP);
+            compressedBodyHeaders = Collections.unmodifiableMap(compressedBodyHeaders);
+        }
+
+        CachePolicy cachePolicy = CachePolicy.NO_CACHE;
+        if (method == HttpMethod.GET) {
+            cachePolicy = requestProperties.getCachePolicy() != null ? requestProperties.getCachePolicy() : CachePolicy.HTTP;
+        }
+        boolean responseObjectCacheEnabled = method == HttpMethod.GET
+                && responseObjectCache != null
+                && requestProperties.isResponseObjectCacheEnabled()
+                && requestProperties.getSuccessResponseDataType() != null
+                && requestProperties.getArrayStreamingOptions() == null;
+        // Duplicates of a streaming request would both stream their elements to the listener.
+        boolean hedgingEnabled = (method == HttpMethod.GET || method == HttpMethod.PUT)
+                && isHedgingAvailable()
+                && requestProperties.getArrayStreamingOptions() == null;
+
+        return new CompiledRequest<>(
+                method,
+                requestProperties.getSuccessResponseDataType(),
+                requestProperties.getErrorResponseDataType(),
+                requestProperties.getRouteTemplate(),
+                requestProperties.getSubPath(),
+                requestProperties.getSuccessStatusCodes(),
+                mergedHeaders,
+                requestProperties.getArrayStreamingOptions(),
+                compressionThreshold,
+                compressedBodyHeaders,
+                cachePolicy,
+                responseObjectCacheEnabled,
+                method == HttpMethod.GET && requestCoalescer != null && requestProperties.getArrayStreamingOptions() == null,
+                requestProperties.getPriority() != null ? requestProperties.getPriority() : RequestPriority.NORMAL,
+                requestProperties.getRetryOptions(),
+                hedgingEnabled ? requestProperties.getHedgingOptions() : null);
+    }
+
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> executeRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Object body, Object tag) {
+        RequestEvent requestEvent = createRequestEventOrNull(compiledRequest);
+        if (requestEvent == null) {
+            return executeRequest(compiledRequest, subPathParameters, queryParameters, body, tag, null);
+        }
+
+        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = executeRequest(compiledRequest, subPathParameters, queryParameters, body, tag, requestEvent);
+        finishRequestEvent(requestEvent, result);
+        return result;
+    }
+
+    /**
+     * Performs a request and waits for its result.
+     * @param requestEvent event to record the phases of the request in, or null if there is no request event listener
+     */
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> executeRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Object body, Object tag, RequestEvent requestEvent) {
+        IHasDataAndSuccessState<String> uriResult = getUriString(compiledRequest.getRouteTemplate(), compiledRequest.getSubPath(), subPathParameters, queryParameters);
+        if (!uriResult.isSuccess()) {
+            return getFailureResult(uriResult, RestClientResultCodes.CANNOT_CREATE_URI);
+        }
+        String uriString = uriResult.getData();
+        if (requestEvent != null) {
+            requestEvent.onUriCreated(uriString);
+        }
+
+        if (compiledRequest.isResponseObjectCacheEnabled()) {
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> cachedResult = getResponseObjectCacheResultOrNull(compiledRequest, uriString);
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+        }
+
+        IHasDataAndSuccessState<byte[]> bodyResult = getBody(body);
+        if (!bodyResult.isSuccess()) {
+            return getFailureResult(bodyResult, RestClientResultCodes.CANNOT_CREATE_JSON_STRING_FROM_OBJECT);
+        }
+
+        byte[] serializedBody = bodyResult.getData();
+        if (requestEvent != null) {
+            requestEvent.onBodySerialized();
+        }
+
+        if (!compiledRequest.isCoalescingEnabled()) {
+            return executeNetworkRequest(compiledRequest, uriString, serializedBody, tag, requestEvent);
+        }
+
+        RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> flight;
+        while (true) {
+            flight = new RestFuture<>();
+            RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> inFlightRequest = requestCoalescer.joinOrStart(uriString, compiledRequest, tag, flight);
+            if (inFlightRequest == null) {
+                break;
+            }
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> coalescedResult = getCoalescedResult(inFlightRequest);
+            if (coalescedResult != null) {
+                return coalescedResult;
+            }
+        }
+
+        try {
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = executeNetworkRequest(compiledRequest, uriString, serializedBody, tag, requestEvent);
+            if (ResultCodeHelper.GetResultCodeOrNull(result, RestClientResultCodes.class) == RestClientResultCodes.REQUEST_INTERRUPTED) {
+                // The interruption only applies to the thread of this caller, the callers that joined perform the request themselves.
+                flight.cancel();
+            }
+            else {
+                flight.complete(result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Performs the network call of a synchronous request and waits for its result.
+     * @param serializedBody UTF-8 encoded JSON body or null if the request has no body
+     * @param requestEvent event to record the network and parse phases in, or null
+     */
+    abstract <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> executeNetworkRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, byte[] serializedBody, Object tag, RequestEvent requestEvent);
+
+    /**
+     * Starts a request that delivers its result to the given listener.
+     */
+    abstract <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void executeRequestAsync(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Object body, Object tag, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Starts a request that completes the returned future with its result. Cancelling the future cancels the request.
+     */
+    abstract <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeRequestFuture(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Object body, Object tag);
+
+    /**
+     * Converts a response to a RestResult and records the conversion in the request event.
+     * @param headers response headers with case-insensitive names
+     * @param requestEvent event to record the parse phase in, or null
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> convertResponse(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, int statusCode, Map<String, String> headers, byte[] data, ResponseSource responseSource, RequestEvent requestEvent) {
+        if (requestEvent == null) {
+            return createRestResult(compiledRequest, uriString, statusCode, headers, data, responseSource);
+        }
+
+        requestEvent.onParseStart(data);
+        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = createRestResult(compiledRequest, uriString, statusCode, headers, data, responseSource);
+        requestEvent.onParseEnd();
+        return result;
+    }
+
+    /**
+     * Creates an event to record the phases of a request in.
+     * @return request event or null if there is no request event listener
+     */
+    RequestEvent createRequestEventOrNull(CompiledRequest<?, ?> compiledRequest) {
+        return requestEventListener != null ? new RequestEvent(compiledRequest.getMethod(), compiledRequest.getSubPath()) : null;
+    }
+
+    /**
+     * Records the outcome of a request and hands its event to the request event listener.
+     */
+    void finishRequestEvent(RequestEvent requestEvent, IHasDataAndSuccessState<? extends RestResult<?, ?>> result) {
+        requestEvent.onFinished(result);
+        requestEventListener.onRequestFinished(requestEvent);
+    }
+
+    /**
+     * Waits for the result of an identical request that is in flight.
+     * @return result or null if the caller that performs the request gave up and this caller has to perform it itself
+     */
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> getCoalescedResult(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> inFlightRequest) {
+        try {
+            return inFlightRequest.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_INTERRUPTED);
+        } catch (CancellationException e) {
+            return null;
+        } catch (ExecutionException e) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+        } catch (TimeoutException e) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_TIMED_OUT);
+        }
+    }
+
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> getFailureResult(IHasDataAndSuccessState<?> failedResult, RestClientResultCodes defaultResultCode) {
+        RestClientResultCodes resultCode = ResultCodeHelper.GetResultCodeOrNull(failedResult, RestClientResultCodes.class);
+        return new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(resultCode != null ? resultCode : defaultResultCode);
+    }
+
+    /**
+     * Gets query parameters that are added to every request, before the parameters of the request itself.
+     * @return already percent-encoded query parameters without leading question mark, or null if there are none
+     */
+    protected String getEncodedQueryPrefix() {
+        return null;
+    }
+
+    /**
+     * Builds the URI in one pass on top of the prefix that was built when the client was created.
+     * A route template is used as is, a plain sub path is formatted and percent-encoded first.
+     */
+    IHasDataAndSuccessState<String> getUriString(RouteTemplate routeTemplate, String subPath, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        if (uriPrefix == null) {
+            return new DataServiceResult<>(CANNOT_CREATE_URI);
+        }
+
+        try {
+            String encodedQueryPrefix = getEncodedQueryPrefix();
+            int queryStringLength = QueryParamsHelper.estimateQueryStringLength(encodedQueryPrefix, queryParameters);
+            StringBuilder builder;
+            if (routeTemplate != null) {
+                builder = new StringBuilder(uriPrefix.length() + routeTemplate.estimateLength(subPathParameters) + queryStringLength);
+                builder.append(uriPrefix);
+                routeTemplate.appendTo(builder, subPathParameters);
+            }
+            else {
+                String parametrizedSubPath = getParametrizedSubPath(subPath, subPathParameters);
+                builder = new StringBuilder(uriPrefix.length() + parametrizedSubPath.length() + queryStringLength);
+                builder.append(uriPrefix);
+                PathHelper.appendEncodedPath(builder, parametrizedSubPath, true);
+            }
+            QueryParamsHelper.appendQueryString(builder, encodedQueryPrefix, queryParameters);
+            return new DataServiceResult<>(builder.toString(), GeneralResultCodes.OK);
+        } catch (Exception e) {
+            return new DataServiceResult<>(CANNOT_CREATE_URI);
+        }
+    }
+
+    /**
+     * Serializes the body straight to UTF-8 bytes with the cached writer for its class.
+     * Jackson writes into its recycled buffers, so the body is encoded once and never goes through a String.
+     */
+    IHasDataAndSuccessState<byte[]> getBody(Object body) {
+        if (body != null) {
+            try {
+                return new DataServiceResult<>(jsonCodecCache.getWriter(body.getClass()).writeValueAsBytes(body), GeneralResultCodes.OK);
+            } catch (Exception e) {
+                return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_JSON_STRING_FROM_OBJECT);
+            }
+        }
+        return new DataServiceResult<>();
+    }
+
+    /**
+     * Converts a response to a RestResult that reports where the response came from,
+     * and caches its success object if the request uses the response object cache.
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> createRestResult(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, int statusCode, Map<String, String> headers, byte[] data, ResponseSource responseSource) {
+        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = createRestResult(compiledRequest, statusCode, headers, data);
+        RestResult<SuccessResponseDataType, ErrorResponseDataType> restResult = result.getData();
+        if (restResult == null) {
+            return result;
+        }
+
+        restResult.setResponseSource(responseSource);
+        if (compiledRequest.isResponseObjectCacheEnabled() && restResult.isSuccess() && restResult.getSuccessData() != null) {
+            int estimatedSize = data != null ? data.length : 0;
+            responseObjectCache.put(uriString, compiledRequest.getSuccessResponseDataType(), compiledRequest.getHeaders(), restResult.getSuccessData(), restResult.getStatusCode(), estimatedSize);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a result from a cached success object.
+     * @return result or null if there is no usable cached object
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> getResponseObjectCacheResultOrNull(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString) {
+        Class<SuccessResponseDataType> successResponseDataType = compiledRequest.getSuccessResponseDataType();
+        ResponseObjectCache.Entry entry = responseObjectCache.get(uriString, successResponseDataType, compiledRequest.getHeaders());
+        if (entry == null) {
+            return null;
+        }
+
+        RestResult<SuccessResponseDataType, ErrorResponseDataType> restResult = new RestResult<>(entry.statusCode, successResponseDataType.cast(entry.data));
+        restResult.setResponseSource(ResponseSource.CACHE);
+        return new DataServiceResult<>(restResult, GeneralResultCodes.OK);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> createRestResult(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, int statusCode, Map<String, String> headers, byte[] data) {
+        Class<SuccessResponseDataType> successResponseDataType = compiledRequest.getSuccessResponseDataType();
+        Class<ErrorResponseDataType> errorResponseDataType = compiledRequest.getErrorResponseDataType();
+        ArrayStreamingOptions<?> arrayStreamingOptions = compiledRequest.getArrayStreamingOptions();
+
+        if (compiledRequest.isSuccessStatusCode(statusCode)) {
+            if (arrayStreamingOptions != null) {
+                try {
+                    streamResponseArray(headers, data, arrayStreamingOptions);
+                    return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(statusCode), GeneralResultCodes.OK);
+                } catch (JsonMappingException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.JSON_RESPONSE_DATA_TYPE_MISMATCH);
+                } catch (JsonParseException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.RESPONSE_IS_NOT_VALID_JSON);
+                } catch (IOException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_OBJECT_FROM_SUCCESS_RESPONSE);
+                }
+            }
+            else if (successResponseDataType == null) {
+                return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(statusCode), GeneralResultCodes.OK);
+            }
+            else {
+                try {
+                    SuccessResponseDataType successObject = readResponseData(headers, data, successResponseDataType);
+                    return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(statusCode, successObject), GeneralResultCodes.OK);
+                } catch (JsonMappingException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.JSON_RESPONSE_DATA_TYPE_MISMATCH);
+                } catch (JsonParseException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.RESPONSE_IS_NOT_VALID_JSON);
+                } catch (IOException e) {
+                    return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_OBJECT_FROM_SUCCESS_RESPONSE);
+                }
+            }
+        }
+
+        if (errorResponseDataType == null) {
+            return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(false, statusCode));
+        }
+        else {
+            try {
+                ErrorResponseDataType errorObject = readResponseData(headers, data, errorResponseDataType);
+                return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(statusCode, errorObject), GeneralResultCodes.OK);
+            } catch (JsonMappingException e) {
+                return new DataServiceResult<>(RestClientResultCodes.JSON_ERROR_DATA_TYPE_MISMATCH);
+            } catch (JsonParseException e) {
+                return new DataServiceResult<>(RestClientResultCodes.RESPONSE_IS_NOT_VALID_JSON);
+            } catch (IOException e) {
+                return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_OBJECT_FROM_ERROR_RESPONSE);
+            }
+        }
+    }
+
+    /**
+     * Deserializes the response body with the cached reader for the data type.
+     */
+    private <DataType> DataType readResponseData(Map<String, String> headers, byte[] data, Class<DataType> dataType) throws IOException {
+        ObjectReader reader = jsonCodecCache.getReader(dataType);
+        JsonParser parser = createResponseParser(reader, headers, data);
+
+        try {
+            return reader.readValue(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Creates a parser over the response body.
+     * A compressed body is decompressed while it is parsed, so the decompressed JSON is never held in memory as a whole.
+     * Jackson detects the Unicode encoding of JSON itself and defaults to UTF-8,
+     * so a reader is only used when the response declares another charset. Otherwise the body is parsed from its bytes.
+     */
+    private JsonParser createResponseParser(ObjectReader reader, Map<String, String> headers, byte[] data) throws IOException {
+        JsonFactory factory = reader.getFactory();
+        String charset = getNonUnicodeCharsetOrNull(headers);
+        String contentEncoding = headers != null ? headers.get(CONTENT_ENCODING_HEADER) : null;
+
+        if (contentEncoding == null && charset == null) {
+            return factory.createParser(data);
+        }
+
+        InputStream body = CompressionHelper.openDecompressingStream(data, contentEncoding);
+        return charset == null ? factory.createParser(body) : factory.createParser(new InputStreamReader(body, charset));
+    }
+
+    /**
+     * Gets the charset the response body must be decoded with before parsing.
+     * @return charset or null if the body can be parsed from its bytes, which is the case unless the response declares a supported non-Unicode charset
+     */
+    private String getNonUnicodeCharsetOrNull(Map<String, String> headers) {
+        String charset = CharsetHelper.parseDeclaredCharset(headers);
+        if (charset == null || CharsetHelper.isUnicodeCharset(charset) || !CharsetHelper.isSupportedCharset(charset)) {
+            return null;
+        }
+
+        return charset;
+    }
+
+    /**
+     * Reads the elements of a JSON array response one at a time and passes them to the listener in chunks,
+     * so no more than one chunk of deserialized elements is held in memory.
+     */
+    private <ElementType> void streamResponseArray(Map<String, String> headers, byte[] data, ArrayStreamingOptions<ElementType> arrayStreamingOptions) throws IOException {
+        ObjectReader reader = jsonCodecCache.getReader(arrayStreamingOptions.getElementType());
+        IArrayElementsListener<ElementType> elementsListener = arrayStreamingOptions.getElementsListener();
+        int chunkSize = Math.max(1, arrayStreamingOptions.getChunkSize());
+
+        JsonParser parser = createResponseParser(reader, headers, data);
+
+        try {
+            // Step into the root-level array, which readValues only does for parsers it creates itself.
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                parser.clearCurrentToken();
+            }
+            MappingIterator<ElementType> iterator = reader.readValues(parser);
+
+            List<ElementType> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNextValue()) {
+                chunk.add(iterator.nextValue());
+                if (chunk.size() == chunkSize) {
+                    elementsListener.onArrayElements(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                elementsListener.onArrayElements(chunk);
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Merges the default headers, the client headers and the given request headers, in that order of precedence.
+     * @return unmodifiable map of headers
+     */
+    private Map<String, String> getMergedHeaders(Map<String, String> headers) {
+        Map<String, String> clientHeaders = getClientHeaders();
+        if (clientHeaders == null && headers == null) {
+            return REQUEST_DEFAULT_HEADERS;
+        }
+
+        Map<String, String> mergedHeaders = new HashMap<>(REQUEST_DEFAULT_HEADERS);
+        if (clientHeaders != null) {
+            mergedHeaders.putAll(clientHeaders);
+        }
+        if (headers != null) {
+            mergedHeaders.putAll(headers);
+        }
+
+        return Collections.unmodifiableMap(mergedHeaders);
+    }
+
+    /**
+     * Builds the scheme, host, port and endpoint path part of the URI.
+     * @return URI prefix or null if no valid URI can be created from the parts
+     */
+    private String getUriPrefix(String scheme, String host, int port, String absoluteEndpointPath) {
+        try {
+            return new URI(scheme, null, host, port, absoluteEndpointPath, null, null).toString();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private String getAbsoluteEndpointPath(String apiBasePath, String endpointPath) {
+        return appendPathIfNeeded(appendPathIfNeeded("", apiBasePath), endpointPath);
+    }
+
+    private String getParametrizedSubPath(String subPath, String[] subPathParameters) {
+        if (subPath == null) {
+            return "";
+        }
+        String parametrizedSubPath = PathHelper.stripSlashes(subPath);
+        if (parametrizedSubPath.equals("")) {
+            return "";
+        }
+        parametrizedSubPath = "/" + parametrizedSubPath;
+
+        if (subPathParameters == null) {
+            return parametrizedSubPath;
+        }
+
+        return String.format(parametrizedSubPath, (Object[])subPathParameters);
+    }
+
+    private String appendPathIfNeeded(String destination, String path) {
+        if (path != null) {
+            String strippedPath = PathHelper.stripSlashes(path);
+            destination += "/" + strippedPath;
+        }
+
+        return destination;
+    }
+}
@@ -0,0 +1,104 @@
+package stannieman.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import stannieman.rest.models.CoreConfigBase;
+
+/**
+ * Base of all REST client factories. It holds the settings and shared objects that do not depend on the transport.
+ */
+public abstract class CoreRestClientFactoryBase implements IRestClientFactory {
+    protected Scheme scheme;
+    protected String host;
+    protected int port;
+    protected String apiBasePath;
+    protected long timeout;
+    protected ObjectMapper objectMapper;
+    protected JsonCodecCache jsonCodecCache;
+    protected int bodyCompressionThreshold;
+    protected ResponseObjectCache responseObjectCache;
+    protected RequestCoalescer requestCoalescer;
+    protected IRequestEventListener requestEventListener;
+    protected boolean requestMetricsEnabled;
+
+    protected Lock configLock = new ReentrantLock();
+
+    protected void loadConfig(CoreConfigBase config) {
+        scheme = config.getScheme();
+        host = config.getHost();
+        port = config.getPort();
+        apiBasePath = config.getApiBasePath();
+        timeout = config.getTimeout();
+        bodyCompressionThreshold = config.getBodyCompressionThreshold();
+        requestEventListener = config.getRequestEventListener();
+        requestMetricsEnabled = config.isRequestMetricsEnabled();
+
+        ObjectMapper newObjectMapper = config.getObjectMapper();
+        if (newObjectMapper != null) {
+            objectMapper = newObjectMapper;
+        }
+        else if (objectMapper == null) {
+            objectMapper = new ObjectMapper();
+        }
+        if (jsonCodecCache == null || jsonCodecCache.getObjectMapper() != objectMapper) {
+            jsonCodecCache = new JsonCodecCache(objectMapper);
+        }
+        jsonCodecCache.warmUp(config.getWarmUpResponseDataTypes(), config.getWarmUpBodyTypes());
+
+        if (config.getResponseObjectCacheMaxEntries() > 0 || config.getResponseObjectCacheMaxSize() > 0) {
+            responseObjectCache = new ResponseObjectCache(config.getResponseObjectCacheMaxEntries(), config.getResponseObjectCacheMaxSize(), config.getResponseObjectCacheTtl());
+        }
+        else {
+            responseObjectCache = null;
+        }
+
+        if (!config.isRequestCoalescingEnabled()) {
+            requestCoalescer = null;
+        }
+        else if (requestCoalescer == null) {
+            requestCoalescer = new RequestCoalescer();
+        }
+    }
+
+    /**
+     * Gets the cache of JSON readers and writers shared by the clients of this factory.
+     * Its hit and miss counts show how often requests could skip (de)serializer lookup.
+     * @return JSON reader and writer cache or null if no configuration was loaded yet
+     */
+    public JsonCodecCache getJsonCodecCache() {
+        configLock.lock();
+        JsonCodecCache cache = jsonCodecCache;
+        configLock.unlock();
+
+        return cache;
+    }
+
+    /**
+     * Gets the in-memory cache of deserialized response objects shared by the clients of this factory.
+     * Use it to invalidate objects after a change on the server or to read its hit and miss counts.
+     * @return response object cache or null if the config does not enable it
+     */
+    public ResponseObjectCache getResponseObjectCache() {
+        configLock.lock();
+        ResponseObjectCache cache = responseObjectCache;
+        configLock.unlock();
+
+        return cache;
+    }
+
+    /**
+     * Gets the coalescer of identical in flight requests shared by the clients of this factory.
+     * Its coalesced request count shows how many requests were saved.
+     * @return request coalescer or null if the config does not enable it
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        configLock.lock();
+        RequestCoalescer coalescer = requestCoalescer;
+        configLock.unlock();
+
+        return coalescer;
+    }
+}
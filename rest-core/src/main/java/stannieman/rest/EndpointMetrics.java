@@ -0,0 +1,141 @@
+package stannieman.rest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import stannieman.rest.models.EndpointMetricsSnapshot;
+import stannieman.rest.models.ResponseSource;
+
+/**
+ * Counters and latency histogram of one endpoint.
+ * Latencies are counted in buckets per power of two microseconds, each split in 8 linear sub-buckets,
+ * so a bucket is never wider than an eighth of its values and memory does not grow with the number of calls.
+ * All methods are thread-safe and lock-free.
+ */
+final class EndpointMetrics {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Latencies of 2^36 microseconds, which is about 19 hours, or more share the last bucket.
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private static final RestClientResultCodes[] RESULT_CODES = RestClientResultCodes.values();
+    private static final int FAILURE_COUNTS_INDEX = BUCKET_COUNT;
+    private static final int REQUEST_COUNT_INDEX = FAILURE_COUNTS_INDEX + RESULT_CODES.length;
+    private static final int ERROR_RESPONSE_COUNT_INDEX = REQUEST_COUNT_INDEX + 1;
+    private static final int BYTES_SENT_INDEX = ERROR_RESPONSE_COUNT_INDEX + 1;
+    private static final int BYTES_RECEIVED_INDEX = BYTES_SENT_INDEX + 1;
+    private static final int LATENCY_SUM_INDEX = BYTES_RECEIVED_INDEX + 1;
+    private static final int COUNTER_COUNT = LATENCY_SUM_INDEX + 1;
+
+    private final String endpoint;
+    private final StripedCounters counters = new StripedCounters(COUNTER_COUNT);
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(RequestEvent requestEvent) {
+        long latency = TimeUnit.NANOSECONDS.toMicros(requestEvent.getEndNanos() - requestEvent.getStartNanos());
+        counters.increment(getBucketIndex(latency));
+        counters.add(LATENCY_SUM_INDEX, latency);
+        counters.increment(REQUEST_COUNT_INDEX);
+
+        RestClientResultCodes resultCode = requestEvent.getResultCode();
+        if (resultCode != null) {
+            counters.increment(FAILURE_COUNTS_INDEX + resultCode.ordinal());
+        }
+        if (requestEvent.getStatusCode() >= 400) {
+            counters.increment(ERROR_RESPONSE_COUNT_INDEX);
+        }
+        if (requestEvent.getRequestBodySize() > 0) {
+            counters.add(BYTES_SENT_INDEX, requestEvent.getRequestBodySize());
+        }
+        if (requestEvent.getResponseSource() == ResponseSource.NETWORK) {
+            counters.add(BYTES_RECEIVED_INDEX, requestEvent.getResponseBodySize());
+        }
+    }
+
+    EndpointMetricsSnapshot getSnapshot(boolean reset) {
+        long[] sums = counters.sum(reset);
+
+        Map<RestClientResultCodes, Long> failureCounts = new EnumMap<>(RestClientResultCodes.class);
+        for (RestClientResultCodes resultCode : RESULT_CODES) {
+            long failureCount = sums[FAILURE_COUNTS_INDEX + resultCode.ordinal()];
+            if (failureCount > 0) {
+                failureCounts.put(resultCode, failureCount);
+            }
+        }
+
+        long requestCount = sums[REQUEST_COUNT_INDEX];
+        return new EndpointMetricsSnapshot(
+                endpoint,
+                requestCount,
+                Collections.unmodifiableMap(failureCounts),
+                sums[ERROR_RESPONSE_COUNT_INDEX],
+                sums[BYTES_SENT_INDEX],
+                sums[BYTES_RECEIVED_INDEX],
+                requestCount > 0 ? toMillis(sums[LATENCY_SUM_INDEX]) / requestCount : 0,
+                getPercentile(sums, 0.5),
+                getPercentile(sums, 0.9),
+                getPercentile(sums, 0.99),
+                getPercentile(sums, 0.999));
+    }
+
+    /**
+     * Gets the bucket of a latency. Latencies below the number of sub-buckets get a bucket of their own.
+     */
+    static int getBucketIndex(long latency) {
+        if (latency < SUB_BUCKET_COUNT) {
+            return (int) Math.max(latency, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(latency);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (latency >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Gets the latency in the middle of a bucket.
+     */
+    static double getBucketValue(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int exponent = bucketIndex / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowerBound = (SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) * bucketWidth;
+        return lowerBound + (bucketWidth - 1) / 2.0;
+    }
+
+    /**
+     * Gets a latency percentile in milliseconds from the bucket counts, which are the first counters.
+     */
+    private static double getPercentile(long[] sums, double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += sums[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += sums[i];
+            if (cumulativeCount >= rank) {
+                return toMillis(getBucketValue(i));
+            }
+        }
+        return toMillis(getBucketValue(BUCKET_COUNT - 1));
+    }
+
+    private static double toMillis(double micros) {
+        return micros / 1000;
+    }
+}
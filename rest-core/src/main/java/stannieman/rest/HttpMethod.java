@@ -0,0 +1,11 @@
+package stannieman.rest;
+
+/**
+ * An enum of the supported HTTP methods.
+ */
+public enum HttpMethod {
+    GET,
+    POST,
+    PUT,
+    PATCH
+}
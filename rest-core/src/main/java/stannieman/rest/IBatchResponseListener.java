@@ -0,0 +1,16 @@
+package stannieman.rest;
+
+import java.util.List;
+
+import stannieman.rest.models.BatchItemResult;
+
+/**
+ * Interface defining a listener for the responses of a batch of REST calls.
+ */
+public interface IBatchResponseListener {
+    /**
+     * Called after all REST calls of a batch are finished.
+     * @param results results of the REST calls, in the order of the requests of the batch
+     */
+    void onBatchResponse(List<BatchItemResult> results);
+}
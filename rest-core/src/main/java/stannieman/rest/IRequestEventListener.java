@@ -0,0 +1,14 @@
+package stannieman.rest;
+
+/**
+ * Interface defining a listener for the timings of REST calls.
+ */
+public interface IRequestEventListener {
+    /**
+     * Called when a REST call is finished, before its result is handed to the caller.
+     * This is called on the thread that performed a synchronous call, or on the main thread for an asynchronous call,
+     * so it must return quickly.
+     * @param requestEvent timestamps of the phases of the call, byte counts and outcome
+     */
+    void onRequestFinished(RequestEvent requestEvent);
+}
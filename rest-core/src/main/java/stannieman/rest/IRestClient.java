@@ -0,0 +1,204 @@
+package stannieman.rest;
+
+import java.util.List;
+
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.BatchItemResult;
+import stannieman.rest.models.BatchRequestItem;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.RequestArguments;
+import stannieman.rest.models.RequestProperties;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Interface defining a REST client.
+ */
+public interface IRestClient {
+    /**
+     * Does a synchronous get request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> get(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does a synchronous post request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> post(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does a synchronous put request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> put(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does a synchronous patch request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> patch(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does an asynchronous get request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param requestResponseListener listener of which the onRequestResponse(IHasDataAndSuccessState<RestResult<ResponseDataType, ErrorDataType>> result) method is called after the call is performed.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void getAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Does an asynchronous post request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param requestResponseListener listener of which the onRequestResponse(IHasDataAndSuccessState<RestResult<ResponseDataType, ErrorDataType>> result) method is called after the call is performed.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void postAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Does an asynchronous put request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param requestResponseListener listener of which the onRequestResponse(IHasDataAndSuccessState<RestResult<ResponseDataType, ErrorDataType>> result) method is called after the call is performed.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void putAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Does an asynchronous patch request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param requestResponseListener listener of which the onRequestResponse(IHasDataAndSuccessState<RestResult<ResponseDataType, ErrorDataType>> result) method is called after the call is performed.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void patchAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Does an asynchronous get request and returns a future of its result.
+     * The future can be composed with other futures and cancelling it cancels the request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return RestFuture that completes with an IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> getFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does an asynchronous post request and returns a future of its result.
+     * The future can be composed with other futures and cancelling it cancels the request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return RestFuture that completes with an IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> postFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does an asynchronous put request and returns a future of its result.
+     * The future can be composed with other futures and cancelling it cancels the request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return RestFuture that completes with an IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> putFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does an asynchronous patch request and returns a future of its result.
+     * The future can be composed with other futures and cancelling it cancels the request.
+     * @param requestProperties info and data required for performing the REST call.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return RestFuture that completes with an IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> patchFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Compiles request properties into an immutable request that can be executed many times.
+     * Everything that does not change between calls, like the response data types, success status codes and headers,
+     * is resolved once. The sub path parameters, query parameters and body of the request properties are not used.
+     * @param method HTTP method of the request
+     * @param requestProperties info required for performing the REST call
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return compiled request that can only be executed by this client
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compile(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties);
+
+    /**
+     * Does a synchronous request for a compiled request.
+     * @param compiledRequest request compiled by this client
+     * @param requestArguments data that changes between calls
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> execute(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments);
+
+    /**
+     * Does an asynchronous request for a compiled request.
+     * @param compiledRequest request compiled by this client
+     * @param requestArguments data that changes between calls
+     * @param requestResponseListener listener of which the onRequestResponse(IHasDataAndSuccessState<RestResult<ResponseDataType, ErrorDataType>> result) method is called after the call is performed.
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void executeAsync(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener);
+
+    /**
+     * Does an asynchronous request for a compiled request and returns a future of its result.
+     * @param compiledRequest request compiled by this client
+     * @param requestArguments data that changes between calls
+     * @param <SuccessResponseDataType> response data type for a successful call
+     * @param <ErrorResponseDataType> response data type for an unsuccessful call
+     * @return RestFuture that completes with an IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeFuture(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, RequestArguments requestArguments);
+
+    /**
+     * Does asynchronous requests for a batch of request properties, with at most maxParallelism of them in flight.
+     * @param items requests of the batch
+     * @param maxParallelism maximum number of requests in flight, at least 1
+     * @param batchResponseListener listener of which the onBatchResponse(List<BatchItemResult> results) method is called after all calls are performed
+     */
+    void executeBatchAsync(List<BatchRequestItem> items, int maxParallelism, IBatchResponseListener batchResponseListener);
+
+    /**
+     * Does asynchronous requests for a batch of request properties, with at most maxParallelism of them in flight, and returns a future of their results.
+     * Cancelling the future cancels the requests that are in flight and does not start the remaining ones.
+     * @param items requests of the batch
+     * @param maxParallelism maximum number of requests in flight, at least 1
+     * @return RestFuture that completes with the results of the calls in the order of the requests
+     */
+    RestFuture<List<BatchItemResult>> executeBatchFuture(List<BatchRequestItem> items, int maxParallelism);
+
+    /**
+     * Cancels all queued and in flight requests with the given tag, from any client of the same factory.
+     * The results of cancelled requests have the REQUEST_CANCELLED result code, unless their result was already delivered.
+     * @param tag tag set on the request properties or request arguments, must not be null
+     */
+    void cancelAll(Object tag);
+
+    /**
+     * Gets the latency histograms, result code counters and byte counts per endpoint of this client.
+     * @return request metrics or null if request metrics are not enabled in the config
+     */
+    RequestMetrics getRequestMetrics();
+}
@@ -0,0 +1,15 @@
+package stannieman.rest;
+
+/**
+ * Interface defining a function that transforms the result of a RestFuture.
+ * @param <InputType> type of the result of the source future
+ * @param <OutputType> type of the transformed result
+ */
+public interface IRestFutureFunction<InputType, OutputType> {
+    /**
+     * Transforms the result of a future.
+     * @param input result of the source future
+     * @return transformed result
+     */
+    OutputType apply(InputType input);
+}
@@ -0,0 +1,13 @@
+package stannieman.rest;
+
+/**
+ * Interface defining a listener that is called when a RestFuture is done.
+ * @param <ResultType> type of the result of the future
+ */
+public interface IRestFutureListener<ResultType> {
+    /**
+     * Called when the future completed, failed or was cancelled.
+     * @param future the future that is done
+     */
+    void onDone(RestFuture<ResultType> future);
+}
@@ -0,0 +1,119 @@
+package stannieman.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of ObjectReaders and ObjectWriters per type.
+ * Readers and writers are created with their root (de)serializer already resolved,
+ * so requests for a cached type skip the type resolution and lookup that
+ * ObjectMapper.readValue and ObjectMapper.writeValueAsBytes do on every call.
+ */
+public final class JsonCodecCache {
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructor to create a cache for the given object mapper.
+     * @param objectMapper object mapper the readers and writers are created from
+     */
+    public JsonCodecCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Gets the object mapper the readers and writers are created from.
+     * @return object mapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Gets the reader for the given type, creating it if it is not cached yet.
+     * @param type type to deserialize
+     * @return reader for the type
+     */
+    public ObjectReader getReader(Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        if (reader != null) {
+            hitCount.incrementAndGet();
+            return reader;
+        }
+
+        missCount.incrementAndGet();
+        return putReaderIfAbsent(type);
+    }
+
+    /**
+     * Gets the writer for the given type, creating it if it is not cached yet.
+     * @param type type to serialize
+     * @return writer for the type
+     */
+    public ObjectWriter getWriter(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer != null) {
+            hitCount.incrementAndGet();
+            return writer;
+        }
+
+        missCount.incrementAndGet();
+        return putWriterIfAbsent(type);
+    }
+
+    /**
+     * Creates the readers and writers for the given types ahead of the first request.
+     * Warming up does not count as hits or misses.
+     * @param readTypes success and error response data types, may be null
+     * @param writeTypes request body types, may be null
+     */
+    public void warmUp(Collection<Class<?>> readTypes, Collection<Class<?>> writeTypes) {
+        if (readTypes != null) {
+            for (Class<?> type : readTypes) {
+                putReaderIfAbsent(type);
+            }
+        }
+        if (writeTypes != null) {
+            for (Class<?> type : writeTypes) {
+                putWriterIfAbsent(type);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a cached reader or writer.
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to create a reader or writer.
+     * @return miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private ObjectReader putReaderIfAbsent(Class<?> type) {
+        ObjectReader reader = objectMapper.readerFor(type);
+        ObjectReader existingReader = readers.putIfAbsent(type, reader);
+        return existingReader != null ? existingReader : reader;
+    }
+
+    private ObjectWriter putWriterIfAbsent(Class<?> type) {
+        ObjectWriter writer = objectMapper.writerFor(type);
+        ObjectWriter existingWriter = writers.putIfAbsent(type, writer);
+        return existingWriter != null ? existingWriter : writer;
+    }
+}
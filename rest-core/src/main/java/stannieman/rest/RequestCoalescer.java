@@ -0,0 +1,136 @@
+package stannieman.rest;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.CachePolicy;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Deduplicates identical GET requests that are in flight at the same time.
+ * The first request is performed and its result is handed to every identical request that starts before it completes.
+ * Requests are identical when their final URI, response data types, headers, success status codes, cache policy, priority and tag are equal.
+ * A request never waits for an identical request with another priority, so urgent requests do not wait behind a background refresh.
+ * Requests with different tags are never coalesced, so cancelling the requests with a tag does not affect the callers of another tag.
+ * Waiting requests get the same RestResult instance, so it must not be modified.
+ * All methods are thread-safe.
+ */
+public final class RequestCoalescer {
+    private final Map<Key, RestFuture<?>> inFlightRequests = new HashMap<>();
+    private final AtomicLong coalescedRequestCount = new AtomicLong();
+
+    /**
+     * Registers a request as in flight, unless an identical request already is.
+     * The caller that performs the request cancels the future instead of completing it if its result only applies to itself,
+     * like an interruption of its thread, and the callers that joined it then perform the request themselves.
+     * @param tag tag of the request or null
+     * @param future future the caller completes with the result of the request if it has to perform the request
+     * @return null if the caller has to perform the request, otherwise the future of the identical request that is in flight
+     */
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> joinOrStart(String uri, CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, Object tag, RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> future) {
+        final Key key = new Key(uri, compiledRequest, tag);
+        synchronized (inFlightRequests) {
+            RestFuture<?> inFlightRequest = inFlightRequests.get(key);
+            // A cancelled request can still be registered until its listeners ran, the caller replaces it.
+            if (inFlightRequest != null && !inFlightRequest.isCancelled()) {
+                coalescedRequestCount.incrementAndGet();
+                // The key contains the response data types, so the result types match.
+                @SuppressWarnings("unchecked")
+                RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> typedInFlightRequest = (RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>) inFlightRequest;
+                return typedInFlightRequest;
+            }
+            inFlightRequests.put(key, future);
+        }
+
+        future.addListener(new IRestFutureListener<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>() {
+            @Override
+            public void onDone(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doneFuture) {
+                synchronized (inFlightRequests) {
+                    if (inFlightRequests.get(key) == doneFuture) {
+                        inFlightRequests.remove(key);
+                    }
+                }
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Gets the number of requests that got the result of an identical request instead of being performed.
+     * @return number of saved requests
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.get();
+    }
+
+    /**
+     * Gets the number of distinct requests that are in flight.
+     * @return number of in flight requests
+     */
+    public int getInFlightRequestCount() {
+        synchronized (inFlightRequests) {
+            return inFlightRequests.size();
+        }
+    }
+
+    private static final class Key {
+        final String uri;
+        final Class<?> successResponseDataType;
+        final Class<?> errorResponseDataType;
+        final Map<String, String> headers;
+        final BitSet successStatusCodes;
+        final CachePolicy cachePolicy;
+        final RequestPriority priority;
+        final Object tag;
+        final int hashCode;
+
+        Key(String uri, CompiledRequest<?, ?> compiledRequest, Object tag) {
+            this.uri = uri;
+            this.successResponseDataType = compiledRequest.getSuccessResponseDataType();
+            this.errorResponseDataType = compiledRequest.getErrorResponseDataType();
+            this.headers = compiledRequest.getHeaders();
+            this.successStatusCodes = compiledRequest.getSuccessStatusCodes();
+            this.cachePolicy = compiledRequest.getCachePolicy();
+            this.priority = compiledRequest.getPriority();
+            this.tag = tag;
+
+            int hash = uri.hashCode();
+            hash = 31 * hash + (headers != null ? headers.hashCode() : 0);
+            hash = 31 * hash + (successResponseDataType != null ? successResponseDataType.hashCode() : 0);
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) object;
+            return hashCode == key.hashCode
+                    && uri.equals(key.uri)
+                    && successResponseDataType == key.successResponseDataType
+                    && errorResponseDataType == key.errorResponseDataType
+                    && cachePolicy == key.cachePolicy
+                    && priority == key.priority
+                    && equalsOrBothNull(headers, key.headers)
+                    && equalsOrBothNull(successStatusCodes, key.successStatusCodes)
+                    && equalsOrBothNull(tag, key.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        private static boolean equalsOrBothNull(Object first, Object second) {
+            return first == second || (first != null && first.equals(second));
+        }
+    }
+}
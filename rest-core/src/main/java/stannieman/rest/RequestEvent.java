@@ -0,0 +1,223 @@
+package stannieman.rest;
+
+import stannieman.commonservices.helpers.ResultCodeHelper;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.helpers.PathHelper;
+import stannieman.rest.models.ResponseSource;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Class that holds the timestamps of the phases of one REST call, its byte counts and its outcome.
+ * Timestamps are System.nanoTime values, so only the differences between them are meaningful.
+ * The timestamp of a phase the call did not reach is 0, like the network phases of a call that was answered from a cache
+ * or joined an identical call that was in flight.
+ * A call waits in the queue between being enqueued and the start of the network phase, which includes
+ * waiting for the concurrency limit of its host. The network phase includes retries.
+ */
+public final class RequestEvent {
+    private final HttpMethod method;
+    private final String subPath;
+    private final long startNanos;
+    private String uri;
+    private long uriCreatedNanos;
+    private long bodySerializedNanos;
+    private long enqueuedNanos;
+    private int requestBodySize;
+    // The network and parse phases of an asynchronous call are recorded on the network dispatcher thread.
+    private volatile long networkStartNanos;
+    private volatile long networkEndNanos;
+    private volatile long parseStartNanos;
+    private volatile long parseEndNanos;
+    private volatile int responseBodySize;
+    private long endNanos;
+    private int statusCode;
+    private ResponseSource responseSource;
+    private RestClientResultCodes resultCode;
+
+    RequestEvent(HttpMethod method, String subPath) {
+        this.method = method;
+        this.subPath = subPath != null ? PathHelper.stripSlashes(subPath) : "";
+        this.startNanos = System.nanoTime();
+    }
+
+    void onUriCreated(String uri) {
+        this.uri = uri;
+        uriCreatedNanos = System.nanoTime();
+    }
+
+    void onBodySerialized() {
+        bodySerializedNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that the request is handed to the transport.
+     * @param requestBodySize number of bytes of the request body as it is sent
+     */
+    void onEnqueued(int requestBodySize) {
+        enqueuedNanos = System.nanoTime();
+        this.requestBodySize = requestBodySize;
+    }
+
+    void onNetworkStart() {
+        networkStartNanos = System.nanoTime();
+    }
+
+    void onNetworkEnd() {
+        networkEndNanos = System.nanoTime();
+    }
+
+    void onParseStart(byte[] responseBody) {
+        parseStartNanos = System.nanoTime();
+        responseBodySize = responseBody != null ? responseBody.length : 0;
+    }
+
+    void onParseEnd() {
+        parseEndNanos = System.nanoTime();
+    }
+
+    void onFinished(IHasDataAndSuccessState<? extends RestResult<?, ?>> result) {
+        endNanos = System.nanoTime();
+        resultCode = ResultCodeHelper.GetResultCodeOrNull(result, RestClientResultCodes.class);
+        RestResult<?, ?> restResult = result.getData();
+        if (restResult != null) {
+            statusCode = restResult.getStatusCode();
+            responseSource = restResult.getResponseSource();
+        }
+    }
+
+    /**
+     * Gets the HTTP method of the call.
+     * @return HTTP method
+     */
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the sub path of the call before its placeholders are filled in, which identifies the endpoint.
+     * @return sub path without leading and trailing slashes
+     */
+    public String getSubPath() {
+        return subPath;
+    }
+
+    /**
+     * Gets the URI of the call.
+     * @return URI or null if it could not be created
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Gets the time the call was started.
+     * @return timestamp in nanoseconds
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Gets the time the URI was created.
+     * @return timestamp in nanoseconds
+     */
+    public long getUriCreatedNanos() {
+        return uriCreatedNanos;
+    }
+
+    /**
+     * Gets the time the body was serialized to JSON.
+     * @return timestamp in nanoseconds
+     */
+    public long getBodySerializedNanos() {
+        return bodySerializedNanos;
+    }
+
+    /**
+     * Gets the time the request was handed to the request queue.
+     * @return timestamp in nanoseconds
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * Gets the time a network dispatcher took the request from the queue.
+     * @return timestamp in nanoseconds
+     */
+    public long getNetworkStartNanos() {
+        return networkStartNanos;
+    }
+
+    /**
+     * Gets the time the response or network error was received.
+     * @return timestamp in nanoseconds
+     */
+    public long getNetworkEndNanos() {
+        return networkEndNanos;
+    }
+
+    /**
+     * Gets the time the conversion of the response to a RestResult started.
+     * @return timestamp in nanoseconds
+     */
+    public long getParseStartNanos() {
+        return parseStartNanos;
+    }
+
+    /**
+     * Gets the time the conversion of the response to a RestResult ended.
+     * @return timestamp in nanoseconds
+     */
+    public long getParseEndNanos() {
+        return parseEndNanos;
+    }
+
+    /**
+     * Gets the time the result was ready to be handed to the caller.
+     * @return timestamp in nanoseconds
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    /**
+     * Gets the number of bytes of the request body as it is sent, so after compression.
+     * @return request body size
+     */
+    public int getRequestBodySize() {
+        return requestBodySize;
+    }
+
+    /**
+     * Gets the number of bytes of the response body that was converted, before decompression.
+     * @return response body size
+     */
+    public int getResponseBodySize() {
+        return responseBodySize;
+    }
+
+    /**
+     * Gets the HTTP status code of the response.
+     * @return status code or 0 if there is no response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets where the response came from.
+     * @return response source or null if there is no response
+     */
+    public ResponseSource getResponseSource() {
+        return responseSource;
+    }
+
+    /**
+     * Gets the result code of a failed call.
+     * @return result code or null if the call succeeded
+     */
+    public RestClientResultCodes getResultCode() {
+        return resultCode;
+    }
+}
@@ -0,0 +1,56 @@
+package stannieman.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import stannieman.rest.models.EndpointMetricsSnapshot;
+
+/**
+ * Request event listener that keeps a latency histogram, result code counters and byte counts per endpoint.
+ * An endpoint is an HTTP method with a sub path, before its placeholders are filled in.
+ * Recording a call only updates striped counters, so calls to the same endpoint from different threads do not contend.
+ * All methods are thread-safe.
+ */
+public final class RequestMetrics implements IRequestEventListener {
+    private final ConcurrentHashMap<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRequestFinished(RequestEvent requestEvent) {
+        String endpoint = requestEvent.getMethod().name() + ' ' + requestEvent.getSubPath();
+        EndpointMetrics metrics = endpointMetrics.get(endpoint);
+        if (metrics == null) {
+            EndpointMetrics newMetrics = new EndpointMetrics(endpoint);
+            metrics = endpointMetrics.putIfAbsent(endpoint, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        metrics.record(requestEvent);
+    }
+
+    /**
+     * Gets the metrics of every endpoint that was called since the metrics were created or last reset.
+     * @return snapshot per endpoint
+     */
+    public List<EndpointMetricsSnapshot> getSnapshots() {
+        return getSnapshots(false);
+    }
+
+    /**
+     * Gets the metrics of every endpoint and starts counting from 0 again, so calling this on an interval gives the metrics per interval.
+     * Every update is in exactly one snapshot, but a call that finishes during the reset can be split over two snapshots.
+     * @return snapshot per endpoint
+     */
+    public List<EndpointMetricsSnapshot> getSnapshotsAndReset() {
+        return getSnapshots(true);
+    }
+
+    private List<EndpointMetricsSnapshot> getSnapshots(boolean reset) {
+        List<EndpointMetricsSnapshot> snapshots = new ArrayList<>(endpointMetrics.size());
+        for (EndpointMetrics metrics : endpointMetrics.values()) {
+            snapshots.add(metrics.getSnapshot(reset));
+        }
+        return snapshots;
+    }
+}
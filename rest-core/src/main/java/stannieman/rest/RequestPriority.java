@@ -0,0 +1,12 @@
+package stannieman.rest;
+
+/**
+ * An enum of the priorities of requests.
+ * Requests with a higher priority are sent before queued requests with a lower priority.
+ */
+public enum RequestPriority {
+    LOW,
+    NORMAL,
+    HIGH,
+    IMMEDIATE
+}
@@ -0,0 +1,199 @@
+package stannieman.rest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory least recently used cache of deserialized success response objects.
+ * Objects are keyed by the final URI, the success response data type and the headers of the request,
+ * so a hit skips both the network and JSON parsing. The cache is bounded by number of entries and by
+ * the total size of the response bodies the objects were parsed from, which is used as an estimate of their size.
+ * Cached objects are shared between all requests that hit them, so they must not be modified.
+ * All methods are thread-safe.
+ */
+public final class ResponseObjectCache {
+    private final int maxEntries;
+    private final long maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Creates a cache.
+     * @param maxEntries maximum number of entries, or 0 or less for no maximum
+     * @param maxSize maximum total size in bytes of the response bodies of the entries, or 0 or less for no maximum
+     * @param ttl time in milliseconds an entry can be used after it was added, or 0 or less if entries do not expire
+     */
+    public ResponseObjectCache(int maxEntries, long maxSize, long ttl) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl > 0 ? TimeUnit.MILLISECONDS.toNanos(ttl) : 0;
+    }
+
+    /**
+     * Gets a cached object.
+     * @return entry or null if there is no entry or it expired
+     */
+    synchronized Entry get(String uri, Class<?> dataType, Map<String, String> headers) {
+        Key key = new Key(uri, dataType, headers);
+        Entry entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdNanos > ttlNanos) {
+            remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry;
+    }
+
+    /**
+     * Adds an object and evicts the least recently used entries until the cache is within its bounds again.
+     * An object that is larger than the maximum size is not added and removes the entry it would replace.
+     */
+    synchronized void put(String uri, Class<?> dataType, Map<String, String> headers, Object data, int statusCode, int estimatedSize) {
+        Key key = new Key(uri, dataType, headers);
+        if (maxSize > 0 && estimatedSize > maxSize) {
+            // The response does not fit, but the entry it replaces is stale now.
+            Entry staleEntry = entries.remove(key);
+            if (staleEntry != null) {
+                size -= staleEntry.size;
+            }
+            return;
+        }
+
+        Entry previousEntry = entries.put(key, new Entry(data, statusCode, estimatedSize, System.nanoTime()));
+        if (previousEntry != null) {
+            size -= previousEntry.size;
+        }
+        size += estimatedSize;
+
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && ((maxEntries > 0 && entries.size() > maxEntries) || (maxSize > 0 && size > maxSize))) {
+            size -= iterator.next().getValue().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all entries of which the URI starts with a prefix,
+     * for example after a request that changed the resources at those URIs.
+     * @param uriPrefix prefix of the final URIs, including scheme and host
+     */
+    public synchronized void invalidate(String uriPrefix) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().uri.startsWith(uriPrefix)) {
+                size -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return number of entries
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total size of the response bodies of the entries.
+     * @return size in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups that found an object.
+     * @return hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that found no object or an expired one.
+     * @return miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    /**
+     * Cached object with the status code of the response it was parsed from.
+     */
+    static final class Entry {
+        final Object data;
+        final int statusCode;
+        final int size;
+        final long createdNanos;
+
+        Entry(Object data, int statusCode, int size, long createdNanos) {
+            this.data = data;
+            this.statusCode = statusCode;
+            this.size = size;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private static final class Key {
+        final String uri;
+        final Class<?> dataType;
+        final Map<String, String> headers;
+        final int hashCode;
+
+        Key(String uri, Class<?> dataType, Map<String, String> headers) {
+            this.uri = uri;
+            this.dataType = dataType;
+            this.headers = headers;
+            this.hashCode = 31 * (31 * uri.hashCode() + dataType.hashCode()) + (headers != null ? headers.hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) object;
+            return hashCode == key.hashCode
+                    && uri.equals(key.uri)
+                    && dataType == key.dataType
+                    && (headers == key.headers || (headers != null && headers.equals(key.headers)));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
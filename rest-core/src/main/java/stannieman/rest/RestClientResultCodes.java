@@ -4,6 +4,9 @@ public enum RestClientResultCodes {
     REQUEST_TIMED_OUT,
     REQUEST_FAILED,
     REQUEST_INTERRUPTED,
+    REQUEST_CANCELLED,
+    REQUEST_REJECTED,
+    CIRCUIT_OPEN,
     RESPONSE_IS_NOT_VALID_JSON,
     JSON_RESPONSE_DATA_TYPE_MISMATCH,
     JSON_ERROR_DATA_TYPE_MISMATCH,
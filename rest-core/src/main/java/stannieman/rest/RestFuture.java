@@ -0,0 +1,468 @@
+package stannieman.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A composable future that can be completed once.
+ * Listeners and transformations run on the thread that completes the future,
+ * or immediately on the calling thread if the future is already done.
+ * No thread is blocked while waiting unless get() is called.
+ * Cancelling a future created by thenApply, thenCompose or allOf also cancels the futures it was created from,
+ * so cancelling the end of a chain of REST calls cancels the request that is in flight.
+ * @param <ResultType> type of the result
+ */
+public final class RestFuture<ResultType> implements Future<ResultType> {
+    private static final int PENDING = 0;
+    private static final int COMPLETED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private static ScheduledExecutorService timeoutScheduler;
+
+    private final Object lock = new Object();
+    private int state = PENDING;
+    private ResultType result;
+    private Throwable failure;
+    private List<IRestFutureListener<ResultType>> listeners = new ArrayList<>();
+
+    /**
+     * Constructor to create a pending future.
+     */
+    public RestFuture() {}
+
+    /**
+     * Creates a future that is already completed with the given result.
+     * @param result result of the future
+     * @param <ResultType> type of the result
+     * @return completed future
+     */
+    public static <ResultType> RestFuture<ResultType> completed(ResultType result) {
+        RestFuture<ResultType> future = new RestFuture<>();
+        future.complete(result);
+        return future;
+    }
+
+    /**
+     * Completes the future with the given result if it is not done yet.
+     * @param result result of the future
+     * @return whether this call completed the future
+     */
+    public boolean complete(ResultType result) {
+        return finish(COMPLETED, result, null);
+    }
+
+    /**
+     * Fails the future with the given throwable if it is not done yet.
+     * get() will throw an ExecutionException with this throwable as cause.
+     * @param failure cause of the failure
+     * @return whether this call failed the future
+     */
+    public boolean completeExceptionally(Throwable failure) {
+        return finish(FAILED, null, failure);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return finish(CANCELLED, null, null);
+    }
+
+    /**
+     * Cancels the future if it is not done yet.
+     * @return whether this call cancelled the future
+     */
+    public boolean cancel() {
+        return cancel(false);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized (lock) {
+            return state == CANCELLED;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (lock) {
+            return state != PENDING;
+        }
+    }
+
+    /**
+     * Returns whether the future failed with a throwable.
+     * @return whether the future failed
+     */
+    public boolean isCompletedExceptionally() {
+        synchronized (lock) {
+            return state == FAILED;
+        }
+    }
+
+    @Override
+    public ResultType get() throws InterruptedException, ExecutionException {
+        synchronized (lock) {
+            while (state == PENDING) {
+                lock.wait();
+            }
+            return getResultLocked();
+        }
+    }
+
+    @Override
+    public ResultType get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long remainingNanos = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remainingNanos;
+
+        synchronized (lock) {
+            while (state == PENDING) {
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+                remainingNanos = deadline - System.nanoTime();
+            }
+            return getResultLocked();
+        }
+    }
+
+    /**
+     * Returns the result if the future completed, otherwise the given value.
+     * @param valueIfNotCompleted value to return if the future is pending, failed or cancelled
+     * @return result of the future or the given value
+     */
+    public ResultType getNow(ResultType valueIfNotCompleted) {
+        synchronized (lock) {
+            return state == COMPLETED ? result : valueIfNotCompleted;
+        }
+    }
+
+    /**
+     * Adds a listener that is called when the future is done.
+     * If the future is already done the listener is called immediately.
+     * Exceptions thrown by a listener that is called when the future completes are ignored.
+     * @param listener listener to add
+     * @return this future
+     */
+    public RestFuture<ResultType> addListener(IRestFutureListener<ResultType> listener) {
+        synchronized (lock) {
+            if (state == PENDING) {
+                listeners.add(listener);
+                return this;
+            }
+        }
+
+        listener.onDone(this);
+        return this;
+    }
+
+    /**
+     * Creates a future that completes with the result of the given function applied to the result of this future.
+     * If this future fails or is cancelled, the returned future fails or is cancelled too.
+     * @param function function to apply to the result
+     * @param <OutputType> type of the transformed result
+     * @return future of the transformed result
+     */
+    public <OutputType> RestFuture<OutputType> thenApply(final IRestFutureFunction<? super ResultType, ? extends OutputType> function) {
+        final RestFuture<OutputType> future = new RestFuture<>();
+        future.cancelSourceOnCancel(this);
+
+        addListener(new IRestFutureListener<ResultType>() {
+            @Override
+            public void onDone(RestFuture<ResultType> source) {
+                if (future.propagateIfNotCompleted(source)) {
+                    return;
+                }
+                try {
+                    future.complete(function.apply(source.result));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Creates a future that completes with the result of the future returned by the given function,
+     * which is called with the result of this future. This allows chaining dependent REST calls.
+     * If this future fails or is cancelled, the returned future fails or is cancelled too.
+     * @param function function that starts the next asynchronous operation
+     * @param <OutputType> type of the result of the next operation
+     * @return future of the result of the next operation
+     */
+    public <OutputType> RestFuture<OutputType> thenCompose(final IRestFutureFunction<? super ResultType, RestFuture<OutputType>> function) {
+        final RestFuture<OutputType> future = new RestFuture<>();
+        future.cancelSourceOnCancel(this);
+
+        addListener(new IRestFutureListener<ResultType>() {
+            @Override
+            public void onDone(RestFuture<ResultType> source) {
+                if (future.propagateIfNotCompleted(source)) {
+                    return;
+                }
+
+                RestFuture<OutputType> next;
+                try {
+                    next = function.apply(source.result);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                if (next == null) {
+                    future.complete(null);
+                    return;
+                }
+
+                future.cancelSourceOnCancel(next);
+                next.addListener(new IRestFutureListener<OutputType>() {
+                    @Override
+                    public void onDone(RestFuture<OutputType> nextSource) {
+                        if (!future.propagateIfNotCompleted(nextSource)) {
+                            future.complete(nextSource.result);
+                        }
+                    }
+                });
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Completes this future with the given value if it is not done within the given time.
+     * @param value value to complete the future with on timeout
+     * @param timeout time to wait
+     * @param unit unit of the timeout
+     * @return this future
+     */
+    public RestFuture<ResultType> completeOnTimeout(final ResultType value, long timeout, TimeUnit unit) {
+        scheduleTimeout(new Runnable() {
+            @Override
+            public void run() {
+                complete(value);
+            }
+        }, timeout, unit);
+        return this;
+    }
+
+    /**
+     * Fails this future with a TimeoutException if it is not done within the given time.
+     * @param timeout time to wait
+     * @param unit unit of the timeout
+     * @return this future
+     */
+    public RestFuture<ResultType> orTimeout(long timeout, TimeUnit unit) {
+        scheduleTimeout(new Runnable() {
+            @Override
+            public void run() {
+                completeExceptionally(new TimeoutException());
+            }
+        }, timeout, unit);
+        return this;
+    }
+
+    /**
+     * Cancels this future if it is not done within the given time.
+     * For futures returned by a REST client this also cancels the request.
+     * @param timeout time to wait
+     * @param unit unit of the timeout
+     * @return this future
+     */
+    public RestFuture<ResultType> cancelOnTimeout(long timeout, TimeUnit unit) {
+        scheduleTimeout(new Runnable() {
+            @Override
+            public void run() {
+                cancel();
+            }
+        }, timeout, unit);
+        return this;
+    }
+
+    /**
+     * Creates a future that completes when all given futures completed.
+     * The result is a list of the results in the order of the given futures.
+     * If one of the futures fails or is cancelled, the returned future fails or is cancelled too.
+     * Cancelling the returned future cancels all given futures.
+     * @param futures futures to wait for
+     * @param <ResultType> type of the results
+     * @return future of the list of results
+     */
+    public static <ResultType> RestFuture<List<ResultType>> allOf(List<? extends RestFuture<? extends ResultType>> futures) {
+        final RestFuture<List<ResultType>> future = new RestFuture<>();
+        final int count = futures.size();
+        if (count == 0) {
+            future.complete(Collections.<ResultType>emptyList());
+            return future;
+        }
+
+        final Object[] results = new Object[count];
+        final AtomicInteger remaining = new AtomicInteger(count);
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            RestFuture<? extends ResultType> source = futures.get(i);
+            future.cancelSourceOnCancel(source);
+            addUntypedListener(source, new IRestFutureListener<Object>() {
+                @Override
+                public void onDone(RestFuture<Object> doneSource) {
+                    if (future.propagateIfNotCompleted(doneSource)) {
+                        return;
+                    }
+                    results[index] = doneSource.result;
+                    if (remaining.decrementAndGet() == 0) {
+                        future.complete(RestFuture.<ResultType>toList(results));
+                    }
+                }
+            });
+        }
+
+        return future;
+    }
+
+    /**
+     * Creates a future that is done as soon as one of the given futures is done,
+     * with the same result, failure or cancellation.
+     * The other futures are not cancelled.
+     * @param futures futures to wait for
+     * @param <ResultType> type of the results
+     * @return future of the first result
+     */
+    public static <ResultType> RestFuture<ResultType> anyOf(List<? extends RestFuture<? extends ResultType>> futures) {
+        final RestFuture<ResultType> future = new RestFuture<>();
+
+        for (RestFuture<? extends ResultType> source : futures) {
+            addUntypedListener(source, new IRestFutureListener<Object>() {
+                @Override
+                public void onDone(RestFuture<Object> doneSource) {
+                    if (!future.propagateIfNotCompleted(doneSource)) {
+                        future.complete(RestFuture.<ResultType>cast(doneSource.result));
+                    }
+                }
+            });
+        }
+
+        return future;
+    }
+
+    private boolean finish(int newState, ResultType newResult, Throwable newFailure) {
+        List<IRestFutureListener<ResultType>> listenersToCall;
+
+        synchronized (lock) {
+            if (state != PENDING) {
+                return false;
+            }
+            state = newState;
+            result = newResult;
+            failure = newFailure;
+            listenersToCall = listeners;
+            listeners = null;
+            lock.notifyAll();
+        }
+
+        for (IRestFutureListener<ResultType> listener : listenersToCall) {
+            try {
+                listener.onDone(this);
+            } catch (RuntimeException e) {
+                // A failing listener must not keep the other listeners from being called or fail the code that completed this future.
+            }
+        }
+        return true;
+    }
+
+    private ResultType getResultLocked() throws ExecutionException {
+        if (state == CANCELLED) {
+            throw new CancellationException();
+        }
+        if (state == FAILED) {
+            throw new ExecutionException(failure);
+        }
+        return result;
+    }
+
+    /**
+     * Fails or cancels this future if the given done source future did not complete normally.
+     * @param source done future
+     * @return whether the source did not complete normally
+     */
+    private boolean propagateIfNotCompleted(RestFuture<?> source) {
+        if (source.isCancelled()) {
+            cancel();
+            return true;
+        }
+        if (source.isCompletedExceptionally()) {
+            completeExceptionally(source.failure);
+            return true;
+        }
+        return false;
+    }
+
+    private void cancelSourceOnCancel(final RestFuture<?> source) {
+        addListener(new IRestFutureListener<ResultType>() {
+            @Override
+            public void onDone(RestFuture<ResultType> future) {
+                if (future.isCancelled()) {
+                    source.cancel();
+                }
+            }
+        });
+    }
+
+    private void scheduleTimeout(Runnable runnable, long timeout, TimeUnit unit) {
+        if (isDone()) {
+            return;
+        }
+        final ScheduledFuture<?> scheduledFuture = getTimeoutScheduler().schedule(runnable, timeout, unit);
+        addListener(new IRestFutureListener<ResultType>() {
+            @Override
+            public void onDone(RestFuture<ResultType> future) {
+                scheduledFuture.cancel(false);
+            }
+        });
+    }
+
+    private static synchronized ScheduledExecutorService getTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            timeoutScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RestFuture-timeouts");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timeoutScheduler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addUntypedListener(RestFuture<?> source, IRestFutureListener<Object> listener) {
+        ((RestFuture<Object>) source).addListener(listener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ResultType> ResultType cast(Object object) {
+        return (ResultType) object;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ResultType> List<ResultType> toList(Object[] results) {
+        List<ResultType> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            list.add((ResultType) result);
+        }
+        return list;
+    }
+}
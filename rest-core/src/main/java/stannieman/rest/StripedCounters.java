@@ -0,0 +1,67 @@
+package stannieman.rest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Array of counters that are each split over a number of stripes, so threads that update the same counter at the same time
+ * mostly update different memory instead of contending on one atomic value. A thread always updates the same stripe.
+ * All methods are thread-safe and lock-free.
+ */
+final class StripedCounters {
+    private static final int MAX_STRIPE_COUNT = 16;
+    // Keeps the counters of neighbouring stripes at least a cache line apart.
+    private static final int PADDING = 8;
+    private static final int STRIPE_COUNT = getStripeCount();
+
+    private final int size;
+    private final int stride;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param size number of counters
+     */
+    StripedCounters(int size) {
+        this.size = size;
+        this.stride = size + PADDING;
+        this.counters = new AtomicLongArray(stride * STRIPE_COUNT);
+    }
+
+    void increment(int index) {
+        add(index, 1);
+    }
+
+    void add(int index, long delta) {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPE_COUNT - 1));
+        counters.getAndAdd(stripe * stride + index, delta);
+    }
+
+    /**
+     * Gets the sum of every counter over all stripes.
+     * An update that happens while the sums are taken is either fully in the sums or not at all, but updates to
+     * different counters that happen at the same time can end up on different sides.
+     * @param reset whether to set the counters to 0, in which case every update is in exactly one of the sums
+     * @return sum per counter
+     */
+    long[] sum(boolean reset) {
+        long[] sums = new long[size];
+        for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+            int offset = stripe * stride;
+            for (int i = 0; i < size; i++) {
+                sums[i] += reset ? counters.getAndSet(offset + i, 0) : counters.get(offset + i);
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Gets the smallest power of two that is at least the number of processors, so every network thread can get its own stripe.
+     */
+    private static int getStripeCount() {
+        int processorCount = Runtime.getRuntime().availableProcessors();
+        int stripeCount = 1;
+        while (stripeCount < processorCount && stripeCount < MAX_STRIPE_COUNT) {
+            stripeCount <<= 1;
+        }
+        return stripeCount;
+    }
+}
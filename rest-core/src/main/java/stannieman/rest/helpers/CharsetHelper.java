@@ -0,0 +1,56 @@
+package stannieman.rest.helpers;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.util.Map;
+
+/**
+ * Class containing helper methods for the charsets of responses.
+ */
+public abstract class CharsetHelper {
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String CHARSET_PARAMETER = "charset";
+
+    /**
+     * Gets the charset declared in the Content-Type header of a response.
+     * @param headers response headers with case-insensitive names, or null
+     * @return declared charset or null if the response does not declare one
+     */
+    public static String parseDeclaredCharset(Map<String, String> headers) {
+        String contentType = headers != null ? headers.get(CONTENT_TYPE_HEADER) : null;
+        if (contentType == null) {
+            return null;
+        }
+
+        String[] parameters = contentType.split(";");
+        for (int i = 1; i < parameters.length; i++) {
+            String[] pair = parameters[i].trim().split("=");
+            if (pair.length == 2 && pair[0].equals(CHARSET_PARAMETER)) {
+                return pair[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a charset is one of the Unicode encodings JSON can be auto-detected from.
+     * @param charset charset name
+     * @return whether the charset is UTF-8, UTF-16 or UTF-32
+     */
+    public static boolean isUnicodeCharset(String charset) {
+        return charset.regionMatches(true, 0, "UTF-", 0, 4) || charset.regionMatches(true, 0, "UTF8", 0, 4);
+    }
+
+    /**
+     * Checks whether a charset is supported by the platform.
+     * @param charset charset name
+     * @return whether the charset is valid and supported
+     */
+    public static boolean isSupportedCharset(String charset) {
+        try {
+            return Charset.isSupported(charset);
+        } catch (IllegalCharsetNameException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package stannieman.rest.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Class containing helper methods for HTTP content codings.
+ */
+public abstract class CompressionHelper {
+    /**
+     * Value of the Accept-Encoding header for the content codings that can be decompressed.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+    /**
+     * Name of the gzip content coding.
+     */
+    public static final String GZIP = "gzip";
+
+    private static final String DEFLATE = "deflate";
+    private static final String IDENTITY = "identity";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Opens a stream that decompresses data while it is read, so the decompressed data is never held in memory as a whole.
+     * Deflate data is accepted both with and without the zlib wrapper, since servers send either.
+     * @param data compressed data
+     * @param contentEncoding value of the Content-Encoding header
+     * @return decompressing stream, or a stream over the data itself if the content coding is not compressed
+     * @throws IOException when the data has no valid gzip header
+     */
+    public static InputStream openDecompressingStream(byte[] data, String contentEncoding) throws IOException {
+        InputStream stream = new ByteArrayInputStream(data);
+        if (contentEncoding == null || IDENTITY.equalsIgnoreCase(contentEncoding.trim())) {
+            return stream;
+        }
+        if (GZIP.equalsIgnoreCase(contentEncoding.trim())) {
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+        if (DEFLATE.equalsIgnoreCase(contentEncoding.trim())) {
+            return new EndingInflaterInputStream(stream, new Inflater(!hasZlibHeader(data)));
+        }
+        return stream;
+    }
+
+    /**
+     * Compresses data with gzip.
+     * @param data data to compress
+     * @return compressed data
+     */
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try {
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            gzipOutputStream.write(data);
+            gzipOutputStream.close();
+        } catch (IOException e) {
+            // A ByteArrayOutputStream does not throw.
+            throw new IllegalStateException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static boolean hasZlibHeader(byte[] data) {
+        if (data.length < 2) {
+            return false;
+        }
+        int compressionMethodAndFlags = data[0] & 0xFF;
+        int flags = data[1] & 0xFF;
+        return (compressionMethodAndFlags & 0x0F) == 8 && ((compressionMethodAndFlags << 8) | flags) % 31 == 0;
+    }
+
+    /**
+     * Inflater stream that releases the native memory of its inflater when it is closed.
+     */
+    private static final class EndingInflaterInputStream extends InflaterInputStream {
+        EndingInflaterInputStream(InputStream in, Inflater inflater) {
+            super(in, inflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
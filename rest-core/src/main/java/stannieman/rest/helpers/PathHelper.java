@@ -0,0 +1,39 @@
+package stannieman.rest.helpers;
+
+/**
+ * Class containing helper methods for URI paths.
+ */
+public abstract class PathHelper {
+    private static final boolean[] PATH_SEGMENT_CHARS = PercentEncodingHelper.createAllowedChars("!$&'()*+,;=:@");
+    private static final boolean[] PATH_CHARS = PercentEncodingHelper.createAllowedChars("!$&'()*+,;=:@/");
+
+    /**
+     * Removes leading and trailing slashes from a string.
+     * @param string string to strip
+     * @return the string without leading and trailing slashes
+     */
+    public static String stripSlashes(String string) {
+        int startIndex = 0;
+        int endIndex = string.length();
+
+        while (startIndex < endIndex && string.charAt(startIndex) == '/') {
+            startIndex++;
+        }
+        while (endIndex > startIndex && string.charAt(endIndex - 1) == '/') {
+            endIndex--;
+        }
+
+        return string.substring(startIndex, endIndex);
+    }
+
+    /**
+     * Appends a string to a builder, percent-encoding every character that is not allowed in a path segment (RFC 3986).
+     * Characters are encoded as UTF-8. Strings that need no encoding are appended as is.
+     * @param builder builder to append to
+     * @param string string to encode
+     * @param keepSlashes whether slashes are kept, which is the case for a path of multiple segments
+     */
+    public static void appendEncodedPath(StringBuilder builder, String string, boolean keepSlashes) {
+        PercentEncodingHelper.appendEncoded(builder, string, keepSlashes ? PATH_CHARS : PATH_SEGMENT_CHARS);
+    }
+}
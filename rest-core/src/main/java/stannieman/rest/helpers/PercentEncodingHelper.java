@@ -0,0 +1,104 @@
+package stannieman.rest.helpers;
+
+/**
+ * Class containing helper methods for percent-encoding (RFC 3986) parts of a URI.
+ */
+public abstract class PercentEncodingHelper {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Creates a lookup table of ASCII characters that do not need encoding.
+     * Letters, digits and the unreserved characters "-._~" are always included.
+     * @param extraAllowedChars additional characters that do not need encoding
+     * @return lookup table indexed by character
+     */
+    public static boolean[] createAllowedChars(String extraAllowedChars) {
+        boolean[] allowedChars = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            allowedChars[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            allowedChars[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            allowedChars[c] = true;
+        }
+        for (char c : ("-._~" + extraAllowedChars).toCharArray()) {
+            allowedChars[c] = true;
+        }
+        return allowedChars;
+    }
+
+    /**
+     * Appends a string to a builder, percent-encoding every character that is not allowed.
+     * Characters are encoded as UTF-8. Strings that need no encoding are appended as is without copying.
+     * @param builder builder to append to
+     * @param string string to encode
+     * @param allowedChars lookup table of ASCII characters that do not need encoding
+     */
+    public static void appendEncoded(StringBuilder builder, String string, boolean[] allowedChars) {
+        int length = string.length();
+        int safeLength = 0;
+        while (safeLength < length && isAllowed(string.charAt(safeLength), allowedChars)) {
+            safeLength++;
+        }
+        if (safeLength == length) {
+            builder.append(string);
+            return;
+        }
+
+        builder.append(string, 0, safeLength);
+        for (int i = safeLength; i < length; i++) {
+            char c = string.charAt(i);
+            if (isAllowed(c, allowedChars)) {
+                builder.append(c);
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                appendEncodedCodePoint(builder, Character.toCodePoint(c, string.charAt(++i)));
+            }
+            else {
+                appendEncodedCodePoint(builder, c);
+            }
+        }
+    }
+
+    /**
+     * Appends the UTF-8 bytes of a code point as percent-encoded octets.
+     * Unpaired surrogates are encoded as a question mark, like the JDK encoders do.
+     * @param builder builder to append to
+     * @param codePoint code point to encode
+     */
+    public static void appendEncodedCodePoint(StringBuilder builder, int codePoint) {
+        if (codePoint < 0x80) {
+            appendEncodedByte(builder, codePoint);
+        }
+        else if (codePoint < 0x800) {
+            appendEncodedByte(builder, 0xC0 | (codePoint >> 6));
+            appendEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+        }
+        else if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            appendEncodedByte(builder, '?');
+        }
+        else if (codePoint < 0x10000) {
+            appendEncodedByte(builder, 0xE0 | (codePoint >> 12));
+            appendEncodedByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+            appendEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+        }
+        else {
+            appendEncodedByte(builder, 0xF0 | (codePoint >> 18));
+            appendEncodedByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+            appendEncodedByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+            appendEncodedByte(builder, 0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private static void appendEncodedByte(StringBuilder builder, int b) {
+        builder.append('%');
+        builder.append(HEX_DIGITS[(b >> 4) & 0xF]);
+        builder.append(HEX_DIGITS[b & 0xF]);
+    }
+
+    private static boolean isAllowed(char c, boolean[] allowedChars) {
+        return c < 128 && allowedChars[c];
+    }
+}
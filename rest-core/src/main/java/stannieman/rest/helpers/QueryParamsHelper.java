@@ -0,0 +1,120 @@
+package stannieman.rest.helpers;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.AbstractMap;
+import java.util.List;
+
+/**
+ * Class containing helper methods for query parameters.
+ */
+public abstract class QueryParamsHelper {
+    private static final String UTF_8 = "UTF-8";
+    private static final boolean[] QUERY_COMPONENT_CHARS = PercentEncodingHelper.createAllowedChars("");
+
+    /**
+     * Converts a list of query parameters to a query string.
+     * @param queryParameters parameters to create query string for
+     * @param encoding encoding for URL encoding
+     * @return the resulting query string
+     * @throws UnsupportedEncodingException when the given encoding is not supported
+     */
+    public static String getQueryString(final List<AbstractMap.SimpleEntry<String, String>> queryParameters, final String encoding) throws UnsupportedEncodingException {
+        if (queryParameters == null || queryParameters.size() == 0) {
+            return "";
+        }
+
+        if (UTF_8.equalsIgnoreCase(encoding)) {
+            final StringBuilder builder = new StringBuilder(estimateQueryStringLength(null, queryParameters));
+            appendQueryString(builder, null, queryParameters);
+            return builder.toString();
+        }
+
+        final StringBuilder builder = new StringBuilder("?");
+
+        for (AbstractMap.SimpleEntry<String, String> param : queryParameters) {
+            builder.append(replacePlus(URLEncoder.encode(param.getKey(), encoding)));
+            builder.append("=");
+            builder.append(replacePlus(URLEncoder.encode(param.getValue(), encoding)));
+            builder.append("&");
+        }
+
+        // Remove trailing ampersand
+        builder.setLength(builder.length() - 1);
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends a UTF-8 query string to a builder.
+     * Keys and values are percent-encoded according to RFC 3986, keeping only unreserved characters.
+     * Nothing is appended if there is no prefix and no parameters.
+     * @param builder builder to append to
+     * @param encodedPrefix already encoded parameters that come first, for example "key=value", may be null
+     * @param queryParameters parameters to encode, may be null
+     */
+    public static void appendQueryString(final StringBuilder builder, final String encodedPrefix, final List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        boolean isFirst = true;
+
+        if (encodedPrefix != null && !encodedPrefix.isEmpty()) {
+            builder.append('?');
+            builder.append(encodedPrefix);
+            isFirst = false;
+        }
+
+        if (queryParameters == null) {
+            return;
+        }
+
+        for (int i = 0, size = queryParameters.size(); i < size; i++) {
+            AbstractMap.SimpleEntry<String, String> param = queryParameters.get(i);
+            builder.append(isFirst ? '?' : '&');
+            isFirst = false;
+            appendEncodedQueryComponent(builder, param.getKey());
+            builder.append('=');
+            appendEncodedQueryComponent(builder, param.getValue());
+        }
+    }
+
+    /**
+     * Percent-encodes a single key or value of a query string according to RFC 3986.
+     * @param component key or value to encode
+     * @return encoded key or value
+     */
+    public static String encodeQueryComponent(final String component) {
+        final StringBuilder builder = new StringBuilder(component.length());
+        appendEncodedQueryComponent(builder, component);
+        return builder.toString();
+    }
+
+    /**
+     * Estimates the length of a query string, for sizing a builder.
+     * @param encodedPrefix already encoded parameters that come first, may be null
+     * @param queryParameters parameters to encode, may be null
+     * @return estimated length
+     */
+    public static int estimateQueryStringLength(final String encodedPrefix, final List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        int length = encodedPrefix != null ? encodedPrefix.length() + 1 : 0;
+
+        if (queryParameters != null) {
+            for (int i = 0, size = queryParameters.size(); i < size; i++) {
+                AbstractMap.SimpleEntry<String, String> param = queryParameters.get(i);
+                length += 2 + getLength(param.getKey()) + getLength(param.getValue());
+            }
+        }
+
+        return length;
+    }
+
+    private static void appendEncodedQueryComponent(final StringBuilder builder, final String component) {
+        PercentEncodingHelper.appendEncoded(builder, component, QUERY_COMPONENT_CHARS);
+    }
+
+    private static int getLength(final String string) {
+        return string != null ? string.length() : 0;
+    }
+
+    private static String replacePlus(String encodedString) {
+        return encodedString.replace("+", "%20");
+    }
+}
@@ -0,0 +1,62 @@
+package stannieman.rest.models;
+
+/**
+ * Class to hold info about how a JSON array response is streamed to a listener
+ * instead of being deserialized into one object.
+ * @param <ElementType> type of the array elements
+ */
+public final class ArrayStreamingOptions<ElementType> {
+    private Class<ElementType> elementType;
+    private int chunkSize = 1;
+    private IArrayElementsListener<ElementType> elementsListener;
+
+    /**
+     * Gets the type of the array elements.
+     * @return element type
+     */
+    public Class<ElementType> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Sets the type of the array elements.
+     * @param elementType element type
+     */
+    public void setElementType(Class<ElementType> elementType) {
+        this.elementType = elementType;
+    }
+
+    /**
+     * Gets the maximum number of elements passed to the listener at once.
+     * @return chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of elements passed to the listener at once.
+     * Only this many elements are held in memory at the same time.
+     * Values smaller than 1 are treated as 1, which is the default.
+     * @param chunkSize chunk size
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the listener that receives the array elements.
+     * @return elements listener
+     */
+    public IArrayElementsListener<ElementType> getElementsListener() {
+        return elementsListener;
+    }
+
+    /**
+     * Sets the listener that receives the array elements.
+     * @param elementsListener elements listener
+     */
+    public void setElementsListener(IArrayElementsListener<ElementType> elementsListener) {
+        this.elementsListener = elementsListener;
+    }
+}
@@ -0,0 +1,44 @@
+package stannieman.rest.models;
+
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+
+/**
+ * Class that represents the result of one request of a batch.
+ */
+public final class BatchItemResult {
+    private final IHasDataAndSuccessState<? extends RestResult<?, ?>> result;
+    private final long queuedNanos;
+    private final long durationNanos;
+
+    public BatchItemResult(IHasDataAndSuccessState<? extends RestResult<?, ?>> result, long queuedNanos, long durationNanos) {
+        this.result = result;
+        this.queuedNanos = queuedNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Gets the result of the request, which is cast to the types of its request properties by the caller.
+     * A failure of one request does not affect the other requests of the batch.
+     * @return IHasDataAndSuccessState instance containing a RestResult instance which in turn contains the resulting info and data of the performed REST call
+     */
+    public IHasDataAndSuccessState<? extends RestResult<?, ?>> getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the time between the start of the batch and the start of the request,
+     * which is spent waiting for a free slot when the batch is larger than its max parallelism.
+     * @return queued time in nanoseconds
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    /**
+     * Gets the time between the start of the request and the delivery of its result.
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
@@ -0,0 +1,50 @@
+package stannieman.rest.models;
+
+import stannieman.rest.HttpMethod;
+
+/**
+ * Class to hold one request of a batch.
+ */
+public final class BatchRequestItem {
+    private HttpMethod method;
+    private RequestProperties<?, ?> requestProperties;
+
+    public BatchRequestItem() {}
+
+    public BatchRequestItem(HttpMethod method, RequestProperties<?, ?> requestProperties) {
+        this.method = method;
+        this.requestProperties = requestProperties;
+    }
+
+    /**
+     * Gets the HTTP method of the request.
+     * @return HTTP method
+     */
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Sets the HTTP method of the request.
+     * @param method HTTP method
+     */
+    public void setMethod(HttpMethod method) {
+        this.method = method;
+    }
+
+    /**
+     * Gets the info required for performing the request.
+     * @return request properties
+     */
+    public RequestProperties<?, ?> getRequestProperties() {
+        return requestProperties;
+    }
+
+    /**
+     * Sets the info required for performing the request.
+     * @param requestProperties request properties
+     */
+    public void setRequestProperties(RequestProperties<?, ?> requestProperties) {
+        this.requestProperties = requestProperties;
+    }
+}
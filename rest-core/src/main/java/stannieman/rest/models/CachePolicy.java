@@ -0,0 +1,32 @@
+package stannieman.rest.models;
+
+/**
+ * An enum of the ways a GET request can use the response cache of the request queue.
+ * Requests with other methods are never cached.
+ */
+public enum CachePolicy {
+    /**
+     * Follows the cache headers of the response: a fresh cached response is used without a network call
+     * and an expired one is revalidated with If-None-Match and If-Modified-Since.
+     * A response that is fresh but should be refreshed according to stale-while-revalidate is used and revalidated in the background.
+     */
+    HTTP,
+    /**
+     * Never reads from or writes to the cache.
+     */
+    NO_CACHE,
+    /**
+     * Always does a network call, which is a conditional request if a cached response exists.
+     * The cached response is used when the server responds with 304 Not Modified or when the network call fails.
+     */
+    NETWORK_FIRST,
+    /**
+     * Uses a cached response, even an expired one, and only does a network call if there is none.
+     */
+    CACHE_FIRST,
+    /**
+     * Uses a cached response, even an expired one, and revalidates it in the background if it is no longer fresh,
+     * so the next call gets the updated response.
+     */
+    STALE_WHILE_REVALIDATE
+}
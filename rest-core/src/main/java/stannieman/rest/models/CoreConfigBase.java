@@ -0,0 +1,286 @@
+package stannieman.rest.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+import stannieman.rest.IRequestEventListener;
+import stannieman.rest.Scheme;
+
+/**
+ * Base of the configurations of all REST client factories, independent of the transport that performs the requests.
+ */
+public abstract class CoreConfigBase {
+    private ObjectMapper objectMapper;
+    private Scheme scheme;
+    private String host;
+    private int port;
+    private String apiBasePath;
+    private long timeout;
+    private List<Class<?>> warmUpResponseDataTypes;
+    private List<Class<?>> warmUpBodyTypes;
+    private int bodyCompressionThreshold;
+    private int responseObjectCacheMaxEntries;
+    private long responseObjectCacheMaxSize;
+    private long responseObjectCacheTtl;
+    private boolean requestCoalescingEnabled;
+    private IRequestEventListener requestEventListener;
+    private boolean requestMetricsEnabled;
+
+    /**
+     * Gets the object mapper used for mapping objects to and from JSON.
+     * @return object mapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Sets the object mapper used for mapping objects to and from JSON.
+     * If this property is null the REST client factory will create a new mapper.
+     * It is recommended to have only one object mapper in your application,
+     * so if you have more than one REST client factory you should
+     * create an object mapper yourself and specify it here.
+     * @param objectMapper object mapper
+     */
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Gets the URI scheme.
+     * @return URI scheme
+     */
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * Sets the URI scheme.
+     * @param scheme URI scheme
+     */
+    public void setScheme(Scheme scheme) {
+        this.scheme = scheme;
+    }
+
+    /**
+     * Gets the remote host.
+     * @return remote host
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Sets the remote host.
+     * @param host remote host
+     */
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Gets the port on which the API is exposed.
+     * @return port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port on which the API is exposed.
+     * @param port port
+     */
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Gets the base path of the API.
+     * @return base path of API
+     */
+    public String getApiBasePath() {
+        return apiBasePath;
+    }
+
+    /**
+     * Sets the base path of the API.
+     * @param apiBasePath base path of API
+     */
+    public void setApiBasePath(String apiBasePath) {
+        this.apiBasePath = apiBasePath;
+    }
+
+    /**
+     * Gets the network timeout.
+     * @return network timeout
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the network timeout.
+     * @param timeout network timeout
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets the success and error response data types for which JSON readers are created when the config is loaded.
+     * @return response data types to warm up
+     */
+    public List<Class<?>> getWarmUpResponseDataTypes() {
+        return warmUpResponseDataTypes;
+    }
+
+    /**
+     * Sets the success and error response data types for which JSON readers are created when the config is loaded.
+     * Readers for other types are created and cached on first use.
+     * @param warmUpResponseDataTypes response data types to warm up
+     */
+    public void setWarmUpResponseDataTypes(List<Class<?>> warmUpResponseDataTypes) {
+        this.warmUpResponseDataTypes = warmUpResponseDataTypes;
+    }
+
+    /**
+     * Gets the request body types for which JSON writers are created when the config is loaded.
+     * @return body types to warm up
+     */
+    public List<Class<?>> getWarmUpBodyTypes() {
+        return warmUpBodyTypes;
+    }
+
+    /**
+     * Sets the request body types for which JSON writers are created when the config is loaded.
+     * Writers for other types are created and cached on first use.
+     * @param warmUpBodyTypes body types to warm up
+     */
+    public void setWarmUpBodyTypes(List<Class<?>> warmUpBodyTypes) {
+        this.warmUpBodyTypes = warmUpBodyTypes;
+    }
+
+    /**
+     * Gets the minimum body size in bytes from which request bodies are sent gzipped.
+     * @return body compression threshold
+     */
+    public int getBodyCompressionThreshold() {
+        return bodyCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum body size in bytes from which request bodies are sent gzipped, with a Content-Encoding header.
+     * Only enable this for servers that accept compressed request bodies.
+     * If this property is 0 or less request bodies are never compressed, which is the default.
+     * Responses are always requested and decompressed with gzip or deflate.
+     * @param bodyCompressionThreshold body compression threshold
+     */
+    public void setBodyCompressionThreshold(int bodyCompressionThreshold) {
+        this.bodyCompressionThreshold = bodyCompressionThreshold;
+    }
+
+    /**
+     * Gets the maximum number of deserialized response objects kept in memory.
+     * @return maximum number of entries
+     */
+    public int getResponseObjectCacheMaxEntries() {
+        return responseObjectCacheMaxEntries;
+    }
+
+    /**
+     * Sets the maximum number of deserialized response objects kept in memory.
+     * The response object cache is only created if this property or the maximum size is greater than 0,
+     * and only used by requests that enable it in their request properties.
+     * @param responseObjectCacheMaxEntries maximum number of entries
+     */
+    public void setResponseObjectCacheMaxEntries(int responseObjectCacheMaxEntries) {
+        this.responseObjectCacheMaxEntries = responseObjectCacheMaxEntries;
+    }
+
+    /**
+     * Gets the maximum total size in bytes of the responses of which the deserialized objects are kept in memory.
+     * @return maximum size
+     */
+    public long getResponseObjectCacheMaxSize() {
+        return responseObjectCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum total size in bytes of the responses of which the deserialized objects are kept in memory.
+     * The size of a response body is used as an estimate of the size of its object.
+     * @param responseObjectCacheMaxSize maximum size
+     */
+    public void setResponseObjectCacheMaxSize(long responseObjectCacheMaxSize) {
+        this.responseObjectCacheMaxSize = responseObjectCacheMaxSize;
+    }
+
+    /**
+     * Gets the time in milliseconds a deserialized response object can be used after it was cached.
+     * @return time to live
+     */
+    public long getResponseObjectCacheTtl() {
+        return responseObjectCacheTtl;
+    }
+
+    /**
+     * Sets the time in milliseconds a deserialized response object can be used after it was cached.
+     * If this property is 0 or less objects stay cached until they are evicted or invalidated.
+     * @param responseObjectCacheTtl time to live
+     */
+    public void setResponseObjectCacheTtl(long responseObjectCacheTtl) {
+        this.responseObjectCacheTtl = responseObjectCacheTtl;
+    }
+
+    /**
+     * Gets whether identical GET requests that are in flight at the same time are coalesced into one.
+     * @return whether request coalescing is enabled
+     */
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescingEnabled;
+    }
+
+    /**
+     * Sets whether identical GET requests that are in flight at the same time are coalesced into one.
+     * The result of the request that is performed is handed to all identical requests,
+     * which then share the same RestResult instance. Requests that stream an array are never coalesced.
+     * @param requestCoalescingEnabled whether request coalescing is enabled
+     */
+    public void setRequestCoalescingEnabled(boolean requestCoalescingEnabled) {
+        this.requestCoalescingEnabled = requestCoalescingEnabled;
+    }
+
+    /**
+     * Gets the listener that receives the timings of every REST call.
+     * @return request event listener or null if there is none
+     */
+    public IRequestEventListener getRequestEventListener() {
+        return requestEventListener;
+    }
+
+    /**
+     * Sets the listener that receives the timestamps of the phases of every REST call, its byte counts and outcome.
+     * If this property is null, which is the default, no timings are recorded.
+     * @param requestEventListener request event listener or null for none
+     */
+    public void setRequestEventListener(IRequestEventListener requestEventListener) {
+        this.requestEventListener = requestEventListener;
+    }
+
+    /**
+     * Gets whether every client keeps metrics per endpoint.
+     * @return whether request metrics are enabled
+     */
+    public boolean isRequestMetricsEnabled() {
+        return requestMetricsEnabled;
+    }
+
+    /**
+     * Sets whether every client keeps a latency histogram, result code counters and byte counts per endpoint,
+     * which are available from IRestClient.getRequestMetrics. The default is false.
+     * @param requestMetricsEnabled whether request metrics are enabled
+     */
+    public void setRequestMetricsEnabled(boolean requestMetricsEnabled) {
+        this.requestMetricsEnabled = requestMetricsEnabled;
+    }
+}
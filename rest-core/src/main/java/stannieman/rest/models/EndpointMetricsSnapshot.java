@@ -0,0 +1,147 @@
+package stannieman.rest.models;
+
+import java.util.Map;
+
+import stannieman.rest.RestClientResultCodes;
+
+/**
+ * Class that represents the metrics of an endpoint over a period of time.
+ * Latencies are measured from the start of a call until its result is ready, and are accurate to about 6 percent.
+ */
+public final class EndpointMetricsSnapshot {
+    private final String endpoint;
+    private final long requestCount;
+    private final Map<RestClientResultCodes, Long> failureCounts;
+    private final long errorResponseCount;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final double meanLatency;
+    private final double latencyP50;
+    private final double latencyP90;
+    private final double latencyP99;
+    private final double latencyP999;
+
+    public EndpointMetricsSnapshot(String endpoint, long requestCount, Map<RestClientResultCodes, Long> failureCounts, long errorResponseCount, long bytesSent, long bytesReceived,
+                                   double meanLatency, double latencyP50, double latencyP90, double latencyP99, double latencyP999) {
+        this.endpoint = endpoint;
+        this.requestCount = requestCount;
+        this.failureCounts = failureCounts;
+        this.errorResponseCount = errorResponseCount;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.meanLatency = meanLatency;
+        this.latencyP50 = latencyP50;
+        this.latencyP90 = latencyP90;
+        this.latencyP99 = latencyP99;
+        this.latencyP999 = latencyP999;
+    }
+
+    /**
+     * Gets the HTTP method and sub path of the endpoint, with the placeholders of the sub path not filled in.
+     * @return endpoint, like GET users/%s
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the number of calls that finished.
+     * @return number of calls
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Gets the number of failed calls per result code.
+     * @return unmodifiable map that only contains result codes that occurred
+     */
+    public Map<RestClientResultCodes, Long> getFailureCounts() {
+        return failureCounts;
+    }
+
+    /**
+     * Gets the number of failed calls.
+     * @return number of calls with a result code
+     */
+    public long getFailureCount() {
+        long failureCount = 0;
+        for (long count : failureCounts.values()) {
+            failureCount += count;
+        }
+        return failureCount;
+    }
+
+    /**
+     * Gets the number of calls that failed because they timed out.
+     * @return number of calls with result code REQUEST_TIMED_OUT
+     */
+    public long getTimeoutCount() {
+        Long timeoutCount = failureCounts.get(RestClientResultCodes.REQUEST_TIMED_OUT);
+        return timeoutCount != null ? timeoutCount : 0;
+    }
+
+    /**
+     * Gets the number of calls that got a response with a status code of 400 or higher.
+     * @return number of error responses
+     */
+    public long getErrorResponseCount() {
+        return errorResponseCount;
+    }
+
+    /**
+     * Gets the number of request body bytes that were sent, after compression.
+     * @return bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the number of response body bytes that were received from the network, before decompression.
+     * @return bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Gets the mean latency.
+     * @return mean latency in milliseconds or 0 if there were no calls
+     */
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    /**
+     * Gets the median latency.
+     * @return latency in milliseconds or 0 if there were no calls
+     */
+    public double getLatencyP50() {
+        return latencyP50;
+    }
+
+    /**
+     * Gets the latency that 90 percent of the calls did not exceed.
+     * @return latency in milliseconds or 0 if there were no calls
+     */
+    public double getLatencyP90() {
+        return latencyP90;
+    }
+
+    /**
+     * Gets the latency that 99 percent of the calls did not exceed.
+     * @return latency in milliseconds or 0 if there were no calls
+     */
+    public double getLatencyP99() {
+        return latencyP99;
+    }
+
+    /**
+     * Gets the latency that 99.9 percent of the calls did not exceed.
+     * @return latency in milliseconds or 0 if there were no calls
+     */
+    public double getLatencyP999() {
+        return latencyP999;
+    }
+}
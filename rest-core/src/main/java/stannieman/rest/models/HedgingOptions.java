@@ -0,0 +1,65 @@
+package stannieman.rest.models;
+
+/**
+ * Class to hold info about when a duplicate of a slow request is sent.
+ * If no response arrived after the hedge delay a second, identical request is sent, the first response is used and the other request is cancelled.
+ * This cuts the tail latency caused by a slow connection or backend instance at the cost of some extra requests,
+ * which the hedge budget of the REST client factory limits.
+ */
+public final class HedgingOptions {
+    private long delay;
+    private double delayPercentile = 0.95;
+    private long minDelay = 50;
+
+    /**
+     * Gets the fixed time to wait for a response before the duplicate request is sent.
+     * @return delay in milliseconds or 0 if the delay follows the observed latency
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * Sets the fixed time to wait for a response before the duplicate request is sent.
+     * If this property is 0 or less, which is the default, the delay is the delay percentile
+     * of the latencies of the recent hedged requests of the client.
+     * @param delay delay in milliseconds or 0 if the delay follows the observed latency
+     */
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Gets the percentile of the observed latency that is used as delay if no fixed delay is set.
+     * @return percentile between 0 and 1
+     */
+    public double getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    /**
+     * Sets the percentile of the observed latency that is used as delay if no fixed delay is set.
+     * The default is 0.95, so about 5% of the requests are hedged.
+     * @param delayPercentile percentile between 0 and 1
+     */
+    public void setDelayPercentile(double delayPercentile) {
+        this.delayPercentile = delayPercentile;
+    }
+
+    /**
+     * Gets the minimum delay before the duplicate request is sent.
+     * @return minimum delay in milliseconds
+     */
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Sets the minimum delay before the duplicate request is sent.
+     * It is also the delay while too few latencies were observed. The default is 50 ms.
+     * @param minDelay minimum delay in milliseconds
+     */
+    public void setMinDelay(long minDelay) {
+        this.minDelay = minDelay;
+    }
+}
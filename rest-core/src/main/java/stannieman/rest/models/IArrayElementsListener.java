@@ -0,0 +1,16 @@
+package stannieman.rest.models;
+
+import java.util.List;
+
+/**
+ * Interface defining a listener for the elements of a streamed JSON array response.
+ * @param <ElementType> type of the array elements
+ */
+public interface IArrayElementsListener<ElementType> {
+    /**
+     * Called for every chunk of elements that has been read from the response.
+     * This is called on the thread that parses the response, before the result of the REST call is delivered.
+     * @param elements the next elements of the array, at most the configured chunk size
+     */
+    void onArrayElements(List<ElementType> elements);
+}
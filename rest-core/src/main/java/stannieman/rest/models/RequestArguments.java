@@ -0,0 +1,82 @@
+package stannieman.rest.models;
+
+import java.util.AbstractMap;
+import java.util.List;
+
+/**
+ * Class to hold the data that changes between calls of a compiled request.
+ */
+public final class RequestArguments {
+    private String[] subPathParameters;
+    private List<AbstractMap.SimpleEntry<String, String>> queryParameters;
+    private Object body;
+    private Object tag;
+
+    /**
+     * Gets the parameters for the sub path.
+     * @return sub path parameters
+     */
+    public String[] getSubPathParameters() {
+        return subPathParameters;
+    }
+
+    /**
+     * Sets the parameters for the sub path.
+     * These parameters are inserted into the placeholders of the sub path.
+     * @param subPathParameters sub path parameters
+     */
+    public void setSubPathParameters(String[] subPathParameters) {
+        this.subPathParameters = subPathParameters;
+    }
+
+    /**
+     * Gets the query parameters as a list of key values.
+     * @return query parameters
+     */
+    public List<AbstractMap.SimpleEntry<String, String>> getQueryParameters() {
+        return queryParameters;
+    }
+
+    /**
+     * Sets the query parameters.
+     * @param queryParameters query parameters
+     */
+    public void setQueryParameters(List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        this.queryParameters = queryParameters;
+    }
+
+    /**
+     * Gets the object representing the body for the request.
+     * @return body for the request
+     */
+    public Object getBody() {
+        return body;
+    }
+
+    /**
+     * Sets the object representing the body for the request.
+     * This object will be parsed to JSON.
+     * @param body body for the request
+     */
+    public void setBody(Object body) {
+        this.body = body;
+    }
+
+    /**
+     * Gets the tag of the request.
+     * @return tag or null if the request has no tag
+     */
+    public Object getTag() {
+        return tag;
+    }
+
+    /**
+     * Sets the tag of the request.
+     * All queued requests with the same tag can be cancelled at once with IRestClient.cancelAll(Object tag),
+     * for example to abort the calls of a screen that is closed.
+     * @param tag tag or null for no tag
+     */
+    public void setTag(Object tag) {
+        this.tag = tag;
+    }
+}
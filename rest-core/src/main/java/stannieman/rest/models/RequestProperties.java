@@ -0,0 +1,328 @@
+package stannieman.rest.models;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+import stannieman.rest.RequestPriority;
+
+/**
+ * Class to hold info about how a particular REST call should
+ * be executed and data that's required for the performing the call.
+ * @param <SuccessResponseDataType> response data type for a successful call
+ * @param <ErrorResponseDataType> response data type for an unsuccessful call
+ */
+public final class RequestProperties<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> {
+    private Class<SuccessResponseDataType> successResponseDataType;
+    private Class<ErrorResponseDataType> errorResponseDataType;
+    private String subPath;
+    private String[] subPathParameters;
+    private RouteTemplate routeTemplate;
+    private List<AbstractMap.SimpleEntry<String, String>> queryParameters;
+    private Map<String, String> headers;
+    private Integer[] successStatusCodes;
+    private Object body;
+    private ArrayStreamingOptions<?> arrayStreamingOptions;
+    private Integer bodyCompressionThreshold;
+    private CachePolicy cachePolicy;
+    private boolean responseObjectCacheEnabled;
+    private Object tag;
+    private RequestPriority priority;
+    private RetryOptions retryOptions;
+    private HedgingOptions hedgingOptions;
+
+    /**
+     * Gets the response data type for a successful call.
+     * @return response data type
+     */
+    public Class<SuccessResponseDataType> getSuccessResponseDataType() {
+        return successResponseDataType;
+    }
+
+    /**
+     * Sets the response data type for a successful call.
+     * @param successResponseDataType response data type
+     */
+    public void setSuccessResponseDataType(Class<SuccessResponseDataType> successResponseDataType) {
+        this.successResponseDataType = successResponseDataType;
+    }
+
+    /**
+     * Gets the response data type for an unsuccessful call.
+     * @return response data type
+     */
+    public Class<ErrorResponseDataType> getErrorResponseDataType() {
+        return errorResponseDataType;
+    }
+
+    /**
+     * Sets the response data type for an unsuccessful call.
+     * @param errorResponseDataType response data type
+     */
+    public void setErrorResponseDataType(Class<ErrorResponseDataType> errorResponseDataType) {
+        this.errorResponseDataType = errorResponseDataType;
+    }
+
+    /**
+     * Gets the sub path for the call.
+     * @return sub path
+     */
+    public String getSubPath() {
+        return subPath;
+    }
+
+    /**
+     * Sets the sub path for the call.
+     * This path can be in printf-style format for using parameters.
+     * @param subPath sub path
+     */
+    public void setSubPath(String subPath) {
+        this.subPath = subPath;
+    }
+
+    /**
+     * Gets the parameters for the sub path.
+     * @return sub path parameters
+     */
+    public String[] getSubPathParameters() {
+        return subPathParameters;
+    }
+
+    /**
+     * Sets the parameters for the sub path.
+     * These parameters are inserted into the sub path if it is in printf-style format.
+     * @param subPathParameters
+     */
+    public void setSubPathParameters(String[] subPathParameters) {
+        this.subPathParameters = subPathParameters;
+    }
+
+    /**
+     * Gets the compiled route template for the sub path.
+     * @return route template
+     */
+    public RouteTemplate getRouteTemplate() {
+        return routeTemplate;
+    }
+
+    /**
+     * Sets a compiled route template that is used instead of the sub path.
+     * The sub path parameters are filled in as its placeholders.
+     * A template can be compiled once with RouteTemplate.compile and reused for every call to the same endpoint.
+     * @param routeTemplate route template
+     */
+    public void setRouteTemplate(RouteTemplate routeTemplate) {
+        this.routeTemplate = routeTemplate;
+    }
+
+    /**
+     * Gets the query parameters as a list of key values.
+     * @return query parameters
+     */
+    public List<AbstractMap.SimpleEntry<String, String>> getQueryParameters() {
+        return queryParameters;
+    }
+
+    /**
+     * Sets the query parameters.
+     * @param queryParameters query parameters
+     */
+    public void setQueryParameters(List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        this.queryParameters = queryParameters;
+    }
+
+    /**
+     * Gets the headers for the request as a key value map.
+     * @return request headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Sets the headers for the request.
+     * @param headers request headers
+     */
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Gets the status codes for a successful request.
+     * @return status codes for a successful request
+     */
+    public Integer[] getSuccessStatusCodes() {
+        return successStatusCodes;
+    }
+
+    /**
+     * Sets the status codes for a successful request.
+     * If the status code of a request exists in this array the request is treated as successful.
+     * If this property is not set or is null then the full 200 range will be considered successful,
+     * all other codes will be considered a failure.
+     * @param successStatusCodes status codes for a successful request
+     */
+    public void setSuccessStatusCodes(Integer[] successStatusCodes) {
+        this.successStatusCodes = successStatusCodes;
+    }
+
+    /**
+     * Gets the object representing the body for the request.
+     * @return body for the request
+     */
+    public Object getBody() {
+        return body;
+    }
+
+    /**
+     * Sets the object representing the body for the request.
+     * This object will be parsed to JSON.
+     * @param body body for the request
+     */
+    public void setBody(Object body) {
+        this.body = body;
+    }
+
+    /**
+     * Gets the options for streaming a JSON array response.
+     * @return array streaming options
+     */
+    public ArrayStreamingOptions<?> getArrayStreamingOptions() {
+        return arrayStreamingOptions;
+    }
+
+    /**
+     * Sets the options for streaming a JSON array response.
+     * If this property is set, the elements of a successful response are read one by one
+     * and passed to the listener of the options in chunks, instead of deserializing the whole
+     * response into the success response data type. The success data of the result is then null.
+     * @param arrayStreamingOptions array streaming options
+     */
+    public void setArrayStreamingOptions(ArrayStreamingOptions<?> arrayStreamingOptions) {
+        this.arrayStreamingOptions = arrayStreamingOptions;
+    }
+
+    /**
+     * Gets the minimum body size in bytes from which the body is sent gzipped.
+     * @return body compression threshold
+     */
+    public Integer getBodyCompressionThreshold() {
+        return bodyCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum body size in bytes from which the body is sent gzipped.
+     * If this property is null the threshold of the config of the REST client factory is used.
+     * Set it to 0 to never compress the body of this request, for example when the server does not support it.
+     * @param bodyCompressionThreshold body compression threshold
+     */
+    public void setBodyCompressionThreshold(Integer bodyCompressionThreshold) {
+        this.bodyCompressionThreshold = bodyCompressionThreshold;
+    }
+
+    /**
+     * Gets how a GET request uses the response cache.
+     * @return cache policy
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * Sets how a GET request uses the response cache.
+     * If this property is null the HTTP policy is used, which follows the cache headers of the response.
+     * Requests with other methods are never cached.
+     * @param cachePolicy cache policy
+     */
+    public void setCachePolicy(CachePolicy cachePolicy) {
+        this.cachePolicy = cachePolicy;
+    }
+
+    /**
+     * Gets whether the deserialized success object of a GET request is cached in memory.
+     * @return whether the response object cache is used
+     */
+    public boolean isResponseObjectCacheEnabled() {
+        return responseObjectCacheEnabled;
+    }
+
+    /**
+     * Sets whether the deserialized success object of a GET request is cached in memory.
+     * A cached object is returned without a network call or JSON parsing, and it is the same instance for every
+     * request that hits it, so it must not be modified. This has no effect if the config of the REST client factory
+     * does not set a size for the response object cache.
+     * @param responseObjectCacheEnabled whether the response object cache is used
+     */
+    public void setResponseObjectCacheEnabled(boolean responseObjectCacheEnabled) {
+        this.responseObjectCacheEnabled = responseObjectCacheEnabled;
+    }
+
+    /**
+     * Gets the tag of the request.
+     * @return tag or null if the request has no tag
+     */
+    public Object getTag() {
+        return tag;
+    }
+
+    /**
+     * Sets the tag of the request.
+     * All queued requests with the same tag can be cancelled at once with IRestClient.cancelAll(Object tag),
+     * for example to abort the calls of a screen that is closed.
+     * @param tag tag or null for no tag
+     */
+    public void setTag(Object tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Gets the priority of the request.
+     * @return request priority or null for normal priority
+     */
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the request.
+     * Queued requests with a higher priority are sent first, so user visible requests should not wait behind background requests.
+     * @param priority request priority or null for normal priority
+     */
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets how the request is retried.
+     * @return retry options or null to use the retry options of the config
+     */
+    public RetryOptions getRetryOptions() {
+        return retryOptions;
+    }
+
+    /**
+     * Sets how the request is retried, overriding the retry options of the config.
+     * @param retryOptions retry options or null to use the retry options of the config
+     */
+    public void setRetryOptions(RetryOptions retryOptions) {
+        this.retryOptions = retryOptions;
+    }
+
+    /**
+     * Gets when a duplicate of the request is sent.
+     * @return hedging options or null if the request is not hedged
+     */
+    public HedgingOptions getHedgingOptions() {
+        return hedgingOptions;
+    }
+
+    /**
+     * Sets when a duplicate of the request is sent to cut its tail latency.
+     * Only GET and PUT requests that do not stream an array are hedged,
+     * and only if the config of the REST client factory has a hedge budget.
+     * @param hedgingOptions hedging options or null to not hedge the request
+     */
+    public void setHedgingOptions(HedgingOptions hedgingOptions) {
+        this.hedgingOptions = hedgingOptions;
+    }
+}
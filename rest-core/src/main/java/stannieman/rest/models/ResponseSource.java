@@ -0,0 +1,19 @@
+package stannieman.rest.models;
+
+/**
+ * An enum of where the response of a REST call came from.
+ */
+public enum ResponseSource {
+    /**
+     * The response was received from the server.
+     */
+    NETWORK,
+    /**
+     * The response was read from the cache without a network call.
+     */
+    CACHE,
+    /**
+     * The server responded with 304 Not Modified to a conditional request and the cached response was used.
+     */
+    REVALIDATED
+}
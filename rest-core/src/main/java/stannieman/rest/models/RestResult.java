@@ -64,6 +64,28 @@ public final class RestResult<SuccessResponseDataType, ErrorResponseDataType ext
 
     //endregion
 
+    //region responseSource
+
+    private ResponseSource responseSource = ResponseSource.NETWORK;
+
+    /**
+     * Returns where the response came from.
+     * @return whether the response came from the network, the cache or the cache after revalidation
+     */
+    public ResponseSource getResponseSource() {
+        return responseSource;
+    }
+
+    /**
+     * Sets where the response came from.
+     * @param responseSource source of the response
+     */
+    public void setResponseSource(ResponseSource responseSource) {
+        this.responseSource = responseSource;
+    }
+
+    //endregion
+
     /**
      * Constructor to set the HTTP status code.
      * Initializes the result as successful with the given HTTP status code.
@@ -0,0 +1,175 @@
+package stannieman.rest.models;
+
+/**
+ * Class to hold info about how failed requests are retried.
+ * The delay before retry n is initialBackoff * backoffMultiplier^n, capped at maxBackoff,
+ * of which a random part of at most the jitter fraction is left out so clients that failed together do not retry together.
+ * Instances are read from network threads, so they must not be modified after they are set on a config or request properties.
+ */
+public final class RetryOptions {
+    private static final Integer[] DEFAULT_RETRYABLE_STATUS_CODES = new Integer[] { 408, 429, 502, 503, 504 };
+
+    private int maxRetries = 2;
+    private long initialBackoff = 100;
+    private long maxBackoff = 5000;
+    private double backoffMultiplier = 2;
+    private double jitter = 0.5;
+    private Integer[] retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+    private boolean retryOnNetworkErrors = true;
+    private boolean retryNonIdempotentMethods;
+    private boolean retryAfterHonoured = true;
+
+    /**
+     * Gets the maximum number of retries after the first attempt.
+     * @return maximum number of retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the maximum number of retries after the first attempt.
+     * The default is 2, 0 disables retries.
+     * @param maxRetries maximum number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Gets the delay before the first retry.
+     * @return initial backoff in milliseconds
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Sets the delay before the first retry.
+     * The default is 100 ms.
+     * @param initialBackoff initial backoff in milliseconds
+     */
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Gets the maximum delay before a retry.
+     * @return maximum backoff in milliseconds
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Sets the maximum delay before a retry.
+     * A request is not retried if the server asks to retry after a longer delay.
+     * The default is 5000 ms.
+     * @param maxBackoff maximum backoff in milliseconds
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Gets the factor the delay is multiplied with for each retry.
+     * @return backoff multiplier
+     */
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Sets the factor the delay is multiplied with for each retry.
+     * The default is 2.
+     * @param backoffMultiplier backoff multiplier
+     */
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    /**
+     * Gets the maximum fraction of the delay that is randomly left out.
+     * @return jitter between 0 and 1
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Sets the maximum fraction of the delay that is randomly left out.
+     * 0 gives exact delays, 1 gives delays anywhere between 0 and the computed delay. The default is 0.5.
+     * @param jitter jitter between 0 and 1
+     */
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    /**
+     * Gets the status codes of responses that are retried.
+     * @return retryable status codes
+     */
+    public Integer[] getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    /**
+     * Sets the status codes of responses that are retried.
+     * The default is 408, 429, 502, 503 and 504. Null retries no responses.
+     * @param retryableStatusCodes retryable status codes
+     */
+    public void setRetryableStatusCodes(Integer[] retryableStatusCodes) {
+        this.retryableStatusCodes = retryableStatusCodes;
+    }
+
+    /**
+     * Gets whether requests that failed without a response, like connection failures and socket timeouts, are retried.
+     * @return whether network errors are retried
+     */
+    public boolean isRetryOnNetworkErrors() {
+        return retryOnNetworkErrors;
+    }
+
+    /**
+     * Sets whether requests that failed without a response, like connection failures and socket timeouts, are retried.
+     * The default is true.
+     * @param retryOnNetworkErrors whether network errors are retried
+     */
+    public void setRetryOnNetworkErrors(boolean retryOnNetworkErrors) {
+        this.retryOnNetworkErrors = retryOnNetworkErrors;
+    }
+
+    /**
+     * Gets whether POST and PATCH requests are retried.
+     * @return whether non-idempotent requests are retried
+     */
+    public boolean isRetryNonIdempotentMethods() {
+        return retryNonIdempotentMethods;
+    }
+
+    /**
+     * Sets whether POST and PATCH requests are retried.
+     * These can have been processed by the server even though they failed, so by default they are not retried.
+     * @param retryNonIdempotentMethods whether non-idempotent requests are retried
+     */
+    public void setRetryNonIdempotentMethods(boolean retryNonIdempotentMethods) {
+        this.retryNonIdempotentMethods = retryNonIdempotentMethods;
+    }
+
+    /**
+     * Gets whether the delay asked for by the Retry-After header of a response is used if it is longer than the backoff.
+     * @return whether Retry-After is honoured
+     */
+    public boolean isRetryAfterHonoured() {
+        return retryAfterHonoured;
+    }
+
+    /**
+     * Sets whether the delay asked for by the Retry-After header of a response is used if it is longer than the backoff.
+     * The default is true.
+     * @param retryAfterHonoured whether Retry-After is honoured
+     */
+    public void setRetryAfterHonoured(boolean retryAfterHonoured) {
+        this.retryAfterHonoured = retryAfterHonoured;
+    }
+}
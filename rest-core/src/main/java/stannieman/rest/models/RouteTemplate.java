@@ -0,0 +1,118 @@
+package stannieman.rest.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import stannieman.rest.helpers.PathHelper;
+import stannieman.rest.helpers.PercentEncodingHelper;
+
+/**
+ * A sub path that is parsed once into literal segments and placeholders.
+ * The sub path uses the same printf-style format as RequestProperties.setSubPath,
+ * but only %s placeholders and %% escapes are supported.
+ * Literals are percent-encoded when the template is compiled, parameters are percent-encoded
+ * as a single path segment when the URI is built, so a slash in a parameter is encoded too.
+ * Templates are immutable and can be shared between threads and requests.
+ */
+public final class RouteTemplate {
+    private final String[] literals;
+    private final int literalsLength;
+
+    private RouteTemplate(String[] literals) {
+        this.literals = literals;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Compiles a sub path into a template.
+     * @param subPath sub path with %s placeholders, leading and trailing slashes are ignored
+     * @return compiled template
+     * @throws IllegalArgumentException when the sub path contains a format specifier other than %s or %%
+     */
+    public static RouteTemplate compile(String subPath) {
+        List<String> literals = new ArrayList<>();
+        String strippedSubPath = subPath != null ? PathHelper.stripSlashes(subPath) : "";
+
+        StringBuilder literal = new StringBuilder();
+        if (!strippedSubPath.isEmpty()) {
+            literal.append('/');
+        }
+
+        int literalStart = 0;
+        int length = strippedSubPath.length();
+        for (int i = 0; i < length; i++) {
+            if (strippedSubPath.charAt(i) != '%') {
+                continue;
+            }
+            if (i + 1 >= length) {
+                throw new IllegalArgumentException("Incomplete format specifier at end of sub path: " + subPath);
+            }
+
+            PathHelper.appendEncodedPath(literal, strippedSubPath.substring(literalStart, i), true);
+            char specifier = strippedSubPath.charAt(i + 1);
+            if (specifier == 's') {
+                literals.add(literal.toString());
+                literal.setLength(0);
+            }
+            else if (specifier == '%') {
+                PercentEncodingHelper.appendEncodedCodePoint(literal, '%');
+            }
+            else {
+                throw new IllegalArgumentException("Unsupported format specifier %" + specifier + " in sub path: " + subPath);
+            }
+            literalStart = i + 2;
+            i++;
+        }
+        PathHelper.appendEncodedPath(literal, strippedSubPath.substring(literalStart), true);
+        literals.add(literal.toString());
+
+        return new RouteTemplate(literals.toArray(new String[literals.size()]));
+    }
+
+    /**
+     * Gets the number of placeholders in the template.
+     * @return number of parameters the template requires
+     */
+    public int getParameterCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Appends the path with the given parameters filled in to a builder.
+     * @param builder builder to append to
+     * @param parameters parameters for the placeholders, may be null if the template has none
+     * @throws IllegalArgumentException when the number of parameters does not match the number of placeholders
+     */
+    public void appendTo(StringBuilder builder, String[] parameters) {
+        int parameterCount = parameters != null ? parameters.length : 0;
+        if (parameterCount != getParameterCount()) {
+            throw new IllegalArgumentException("Expected " + getParameterCount() + " sub path parameters but got " + parameterCount);
+        }
+
+        builder.append(literals[0]);
+        for (int i = 0; i < parameterCount; i++) {
+            PathHelper.appendEncodedPath(builder, String.valueOf(parameters[i]), false);
+            builder.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * Estimates the length of the path for the given parameters, for sizing a builder.
+     * @param parameters parameters for the placeholders, may be null
+     * @return estimated length
+     */
+    public int estimateLength(String[] parameters) {
+        int length = literalsLength;
+        if (parameters != null) {
+            for (String parameter : parameters) {
+                length += parameter != null ? parameter.length() : 4;
+            }
+        }
+        return length;
+    }
+}
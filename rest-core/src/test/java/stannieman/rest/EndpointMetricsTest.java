@@ -0,0 +1,99 @@
+package stannieman.rest;
+
+import org.junit.Test;
+
+import stannieman.commonservices.models.DataServiceResult;
+import stannieman.rest.models.EndpointMetricsSnapshot;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.RestResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EndpointMetricsTest {
+    private static final long MAX_LATENCY = 1L << 36;
+    private static final int LAST_BUCKET_INDEX = EndpointMetrics.getBucketIndex(Long.MAX_VALUE);
+
+    @Test
+    public void latenciesBelowSubBucketCountHaveTheirOwnBucket() {
+        for (int latency = 0; latency < 8; latency++) {
+            assertEquals(latency, EndpointMetrics.getBucketIndex(latency));
+            assertEquals(latency, EndpointMetrics.getBucketValue(latency), 0);
+        }
+        assertEquals(0, EndpointMetrics.getBucketIndex(-1));
+    }
+
+    @Test
+    public void firstPowerOfTwoIsSplitInBucketsOfOne() {
+        assertEquals(8, EndpointMetrics.getBucketIndex(8));
+        assertEquals(15, EndpointMetrics.getBucketIndex(15));
+        assertEquals(8, EndpointMetrics.getBucketValue(8), 0);
+        assertEquals(15, EndpointMetrics.getBucketValue(15), 0);
+    }
+
+    @Test
+    public void nextPowerOfTwoIsSplitInBucketsOfTwo() {
+        assertEquals(16, EndpointMetrics.getBucketIndex(16));
+        assertEquals(16, EndpointMetrics.getBucketIndex(17));
+        assertEquals(17, EndpointMetrics.getBucketIndex(18));
+        assertEquals(23, EndpointMetrics.getBucketIndex(31));
+        assertEquals(24, EndpointMetrics.getBucketIndex(32));
+        assertEquals(16.5, EndpointMetrics.getBucketValue(16), 0);
+        assertEquals(30.5, EndpointMetrics.getBucketValue(23), 0);
+    }
+
+    @Test
+    public void bucketValueIsWithinEighthOfLatency() {
+        for (long latency = 8; latency < MAX_LATENCY; latency = latency * 3 / 2 + 1) {
+            double value = EndpointMetrics.getBucketValue(EndpointMetrics.getBucketIndex(latency));
+            assertTrue("latency " + latency, Math.abs(value - latency) <= latency / 8.0);
+        }
+    }
+
+    @Test
+    public void largestPowerOfTwoStartsTheLastBuckets() {
+        int index = EndpointMetrics.getBucketIndex(MAX_LATENCY);
+        assertEquals(LAST_BUCKET_INDEX - 7, index);
+        assertEquals(index - 1, EndpointMetrics.getBucketIndex(MAX_LATENCY - 1));
+        assertEquals(MAX_LATENCY + ((MAX_LATENCY >> 3) - 1) / 2.0, EndpointMetrics.getBucketValue(index), 0);
+    }
+
+    @Test
+    public void latenciesFromTwiceTheLargestPowerOfTwoShareTheLastBucket() {
+        assertEquals(LAST_BUCKET_INDEX, EndpointMetrics.getBucketIndex(MAX_LATENCY * 2 - 1));
+        assertEquals(LAST_BUCKET_INDEX, EndpointMetrics.getBucketIndex(MAX_LATENCY * 2));
+        assertEquals(LAST_BUCKET_INDEX, EndpointMetrics.getBucketIndex(MAX_LATENCY * 1024));
+        assertTrue(EndpointMetrics.getBucketValue(LAST_BUCKET_INDEX) < MAX_LATENCY * 2);
+    }
+
+    @Test
+    public void resetSnapshotClearsLatencies() throws InterruptedException {
+        EndpointMetrics metrics = new EndpointMetrics("items");
+        for (int i = 0; i < 3; i++) {
+            record(metrics, 50);
+        }
+
+        EndpointMetricsSnapshot snapshot = metrics.getSnapshot(true);
+        assertEquals(3, snapshot.getRequestCount());
+        assertTrue(snapshot.getLatencyP50() >= 50 * 0.875);
+
+        snapshot = metrics.getSnapshot(false);
+        assertEquals(0, snapshot.getRequestCount());
+        assertEquals(0, snapshot.getMeanLatency(), 0);
+        assertEquals(0, snapshot.getLatencyP50(), 0);
+        assertEquals(0, snapshot.getLatencyP999(), 0);
+
+        record(metrics, 0);
+        snapshot = metrics.getSnapshot(false);
+        assertEquals(1, snapshot.getRequestCount());
+        assertTrue(snapshot.getLatencyP999() < 50 * 0.875);
+        assertEquals(snapshot.getLatencyP50(), snapshot.getLatencyP999(), 0);
+    }
+
+    private static void record(EndpointMetrics metrics, long latencyMillis) throws InterruptedException {
+        RequestEvent requestEvent = new RequestEvent(HttpMethod.GET, "items");
+        Thread.sleep(latencyMillis);
+        requestEvent.onFinished(new DataServiceResult<RestResult<Object, ErrorResponseDataBase>, RestClientResultCodes>(RestClientResultCodes.REQUEST_TIMED_OUT));
+        metrics.record(requestEvent);
+    }
+}
@@ -0,0 +1,45 @@
+package stannieman.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class StripedCountersTest {
+    @Test
+    public void sumAddsAllStripes() throws InterruptedException {
+        final StripedCounters counters = new StripedCounters(2);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        counters.increment(0);
+                        counters.add(1, 2);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertArrayEquals(new long[] { 8000, 16000 }, counters.sum(false));
+        assertArrayEquals(new long[] { 8000, 16000 }, counters.sum(false));
+    }
+
+    @Test
+    public void sumWithResetStartsCountingAgain() {
+        StripedCounters counters = new StripedCounters(3);
+        counters.increment(0);
+        counters.add(2, 5);
+
+        assertArrayEquals(new long[] { 1, 0, 5 }, counters.sum(true));
+        assertArrayEquals(new long[] { 0, 0, 0 }, counters.sum(false));
+
+        counters.increment(1);
+        assertArrayEquals(new long[] { 0, 1, 0 }, counters.sum(true));
+        assertArrayEquals(new long[] { 0, 0, 0 }, counters.sum(true));
+    }
+}
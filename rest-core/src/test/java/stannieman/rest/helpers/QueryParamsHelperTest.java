@@ -0,0 +1,144 @@
+package stannieman.rest.helpers;
+
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryParamsHelperTest {
+    private static final String UTF_8 = "UTF-8";
+    private static final String RESERVED_CHARS = ":/?#[]@!$&'()*+,;=";
+
+    @Test
+    public void unreservedCharsAreNotEncoded() {
+        String unreserved = "abcxyzABCXYZ0189-._~";
+        assertEquals(unreserved, QueryParamsHelper.encodeQueryComponent(unreserved));
+    }
+
+    @Test
+    public void reservedCharsAreEncoded() {
+        assertEquals("%3A%2F%3F%23%5B%5D%40%21%24%26%27%28%29%2A%2B%2C%3B%3D", QueryParamsHelper.encodeQueryComponent(RESERVED_CHARS));
+    }
+
+    @Test
+    public void spaceIsEncodedAsPercent20() {
+        assertEquals("a%20b", QueryParamsHelper.encodeQueryComponent("a b"));
+    }
+
+    @Test
+    public void onlyAsteriskAndTildeDifferFromLegacyEncoding() throws UnsupportedEncodingException {
+        // URLEncoder keeps * and encodes ~, RFC 3986 does the opposite.
+        assertEquals("%2A", QueryParamsHelper.encodeQueryComponent("*"));
+        assertEquals("~", QueryParamsHelper.encodeQueryComponent("~"));
+        assertEquals(encodeLegacy(RESERVED_CHARS).replace("*", "%2A"), QueryParamsHelper.encodeQueryComponent(RESERVED_CHARS));
+        assertEquals(encodeLegacy("a b\"%<>\\^`{|}"), QueryParamsHelper.encodeQueryComponent("a b\"%<>\\^`{|}"));
+    }
+
+    @Test
+    public void nonAsciiCharsAreEncodedAsUtf8() throws UnsupportedEncodingException {
+        assertEquals("caf%C3%A9", QueryParamsHelper.encodeQueryComponent("caf\u00E9"));
+        assertEquals("%E2%82%AC", QueryParamsHelper.encodeQueryComponent("\u20AC"));
+        assertEquals(encodeLegacy("caf\u00E9 \u20AC \u4E2D"), QueryParamsHelper.encodeQueryComponent("caf\u00E9 \u20AC \u4E2D"));
+    }
+
+    @Test
+    public void surrogatePairIsEncodedAsOneCodePoint() throws UnsupportedEncodingException {
+        String emoji = "\uD83D\uDE00";
+        assertEquals("%F0%9F%98%80", QueryParamsHelper.encodeQueryComponent(emoji));
+        assertEquals(encodeLegacy("a" + emoji + "b"), QueryParamsHelper.encodeQueryComponent("a" + emoji + "b"));
+    }
+
+    @Test
+    public void unpairedSurrogateIsEncodedAsQuestionMark() throws UnsupportedEncodingException {
+        assertEquals("a%3Fb", QueryParamsHelper.encodeQueryComponent("a\uD83Db"));
+        assertEquals("%3F", QueryParamsHelper.encodeQueryComponent("\uDE00"));
+        assertEquals(encodeLegacy("a\uD83Db"), QueryParamsHelper.encodeQueryComponent("a\uD83Db"));
+    }
+
+    @Test
+    public void noParametersGiveEmptyQueryString() throws UnsupportedEncodingException {
+        assertEquals("", QueryParamsHelper.getQueryString(null, UTF_8));
+        assertEquals("", QueryParamsHelper.getQueryString(Collections.<AbstractMap.SimpleEntry<String, String>>emptyList(), UTF_8));
+    }
+
+    @Test
+    public void utf8QueryStringEncodesKeysAndValues() throws UnsupportedEncodingException {
+        List<AbstractMap.SimpleEntry<String, String>> queryParameters = Arrays.asList(
+                new AbstractMap.SimpleEntry<>("q", "a b&c"),
+                new AbstractMap.SimpleEntry<>("sort key", "name~"));
+        assertEquals("?q=a%20b%26c&sort%20key=name~", QueryParamsHelper.getQueryString(queryParameters, UTF_8));
+        assertEquals("?q=a%20b%26c&sort%20key=name~", QueryParamsHelper.getQueryString(queryParameters, "utf-8"));
+    }
+
+    @Test
+    public void otherEncodingsUseLegacyEncoding() throws UnsupportedEncodingException {
+        List<AbstractMap.SimpleEntry<String, String>> queryParameters = Collections.singletonList(new AbstractMap.SimpleEntry<>("na\u00EFve key", "a*b \u00E9~"));
+        assertEquals("?na%EFve%20key=a*b%20%E9%7E", QueryParamsHelper.getQueryString(queryParameters, "ISO-8859-1"));
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void unsupportedEncodingThrows() throws UnsupportedEncodingException {
+        QueryParamsHelper.getQueryString(Collections.singletonList(new AbstractMap.SimpleEntry<>("a", "b")), "no-such-encoding");
+    }
+
+    @Test
+    public void encodedPrefixComesFirst() {
+        StringBuilder builder = new StringBuilder();
+        QueryParamsHelper.appendQueryString(builder, "key=1", Collections.singletonList(new AbstractMap.SimpleEntry<>("a", "b c")));
+        assertEquals("?key=1&a=b%20c", builder.toString());
+
+        builder.setLength(0);
+        QueryParamsHelper.appendQueryString(builder, "key=1", null);
+        assertEquals("?key=1", builder.toString());
+
+        builder.setLength(0);
+        QueryParamsHelper.appendQueryString(builder, null, null);
+        assertEquals("", builder.toString());
+    }
+
+    @Test
+    public void preEncodedKeyParameterMatchesKeyAsFirstParameter() throws UnsupportedEncodingException {
+        // The key auth client encodes its key parameter once and passes it as prefix,
+        // where it used to be added as the first query parameter of every request.
+        String keyParameterName = "api key";
+        String key = "s3cr3t/+=\u00E9";
+        List<AbstractMap.SimpleEntry<String, String>> queryParameters = Arrays.asList(
+                new AbstractMap.SimpleEntry<>("q", "a b"),
+                new AbstractMap.SimpleEntry<>("page", "2"));
+        String encodedPrefix = QueryParamsHelper.encodeQueryComponent(keyParameterName) + "=" + QueryParamsHelper.encodeQueryComponent(key);
+
+        StringBuilder builder = new StringBuilder();
+        QueryParamsHelper.appendQueryString(builder, encodedPrefix, queryParameters);
+
+        List<AbstractMap.SimpleEntry<String, String>> queryParametersWithKey = new ArrayList<>();
+        queryParametersWithKey.add(new AbstractMap.SimpleEntry<>(keyParameterName, key));
+        queryParametersWithKey.addAll(queryParameters);
+        assertEquals(QueryParamsHelper.getQueryString(queryParametersWithKey, UTF_8), builder.toString());
+        assertEquals(getLegacyQueryString(queryParametersWithKey), builder.toString());
+    }
+
+    /**
+     * Encodes like the query strings were encoded before RFC 3986 encoding was used for UTF-8.
+     */
+    private static String encodeLegacy(String component) throws UnsupportedEncodingException {
+        return URLEncoder.encode(component, UTF_8).replace("+", "%20");
+    }
+
+    private static String getLegacyQueryString(List<AbstractMap.SimpleEntry<String, String>> queryParameters) throws UnsupportedEncodingException {
+        StringBuilder builder = new StringBuilder();
+        for (AbstractMap.SimpleEntry<String, String> param : queryParameters) {
+            builder.append(builder.length() == 0 ? '?' : '&');
+            builder.append(encodeLegacy(param.getKey()));
+            builder.append('=');
+            builder.append(encodeLegacy(param.getValue()));
+        }
+        return builder.toString();
+    }
+}
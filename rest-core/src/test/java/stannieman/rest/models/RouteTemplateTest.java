@@ -0,0 +1,105 @@
+package stannieman.rest.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RouteTemplateTest {
+    @Test
+    public void placeholdersAreReplacedByParameters() {
+        RouteTemplate template = RouteTemplate.compile("users/%s/items/%s");
+
+        assertEquals(2, template.getParameterCount());
+        assertEquals("/users/42/items/abc", expand(template, "42", "abc"));
+    }
+
+    @Test
+    public void slashesAroundSubPathAreIgnored() {
+        assertEquals("/items/1", expand(RouteTemplate.compile("/items/%s/"), "1"));
+    }
+
+    @Test
+    public void emptySubPathGivesEmptyPath() {
+        RouteTemplate template = RouteTemplate.compile("");
+
+        assertEquals(0, template.getParameterCount());
+        assertEquals("", expand(template));
+        assertEquals("", expand(RouteTemplate.compile(null)));
+    }
+
+    @Test
+    public void placeholderCanBeWholePath() {
+        assertEquals("/a%2Fb", expand(RouteTemplate.compile("%s"), "a/b"));
+    }
+
+    @Test
+    public void parameterIsEncodedAsOneSegment() {
+        assertEquals("/items/a%20b%2Fc%3F%23%25", expand(RouteTemplate.compile("items/%s"), "a b/c?#%"));
+    }
+
+    @Test
+    public void charsAllowedInSegmentAreNotEncoded() {
+        assertEquals("/items/a:b@c!$&'()*+,;=-._~", expand(RouteTemplate.compile("items/%s"), "a:b@c!$&'()*+,;=-._~"));
+    }
+
+    @Test
+    public void nonAsciiParameterIsEncodedAsUtf8() {
+        assertEquals("/items/caf%C3%A9%F0%9F%98%80", expand(RouteTemplate.compile("items/%s"), "caf\u00e9\ud83d\ude00"));
+    }
+
+    @Test
+    public void literalsAreEncodedButKeepTheirSlashes() {
+        assertEquals("/my%20items/sub/1", expand(RouteTemplate.compile("my items/sub/%s"), "1"));
+    }
+
+    @Test
+    public void escapedPercentIsLiteral() {
+        RouteTemplate template = RouteTemplate.compile("100%%/%s");
+
+        assertEquals(1, template.getParameterCount());
+        assertEquals("/100%25/x", expand(template, "x"));
+    }
+
+    @Test
+    public void nullParameterIsWrittenAsNull() {
+        assertEquals("/items/null", expand(RouteTemplate.compile("items/%s"), (String) null));
+    }
+
+    @Test
+    public void expansionIsAppendedToBuilder() {
+        StringBuilder builder = new StringBuilder("https://example.com/api");
+        RouteTemplate.compile("items/%s").appendTo(builder, new String[] { "1" });
+
+        assertEquals("https://example.com/api/items/1", builder.toString());
+    }
+
+    @Test
+    public void estimatedLengthCoversPlainParameters() {
+        RouteTemplate template = RouteTemplate.compile("users/%s/items/%s");
+        String[] parameters = { "42", "abc" };
+
+        assertTrue(template.estimateLength(parameters) >= expand(template, parameters).length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherFormatSpecifierIsRejected() {
+        RouteTemplate.compile("items/%d");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewParametersAreRejected() {
+        expand(RouteTemplate.compile("users/%s/items/%s"), "42");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyParametersAreRejected() {
+        expand(RouteTemplate.compile("items"), "42");
+    }
+
+    private static String expand(RouteTemplate template, String... parameters) {
+        StringBuilder builder = new StringBuilder();
+        template.appendTo(builder, parameters);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,7 @@
+package stannieman.rest;
+
+import stannieman.rest.models.JdkHttpRestClientFactoryConfig;
+
+public interface IJdkHttpRestClientFactory extends IRestClientFactory {
+    void loadConfig(JdkHttpRestClientFactoryConfig config);
+}
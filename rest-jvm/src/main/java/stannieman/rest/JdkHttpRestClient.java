@@ -0,0 +1,276 @@
+package stannieman.rest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import stannieman.commonservices.models.DataServiceResult;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.helpers.CompressionHelper;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.RequestProperties;
+import stannieman.rest.models.ResponseSource;
+import stannieman.rest.models.RestResult;
+
+/**
+ * A REST client that performs its requests with the HTTP client of the JDK, for use on the JVM without Android.
+ * Synchronous requests block the calling thread, which is cheap when it is a virtual thread.
+ * Asynchronous requests run on the executor of the factory and deliver their results on its threads,
+ * or on the thread that cancels them.
+ * Cache policies, hedging, retries and the per host limits of the Volley clients are not supported,
+ * every request goes to the network once.
+ */
+public final class JdkHttpRestClient extends CoreRestClientBase {
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String BODY_CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final TaggedFutures taggedFutures;
+    private final Map<String, String> clientHeaders;
+
+    JdkHttpRestClient(JsonCodecCache jsonCodecCache, HttpClient httpClient, ExecutorService executor, TaggedFutures taggedFutures, Scheme scheme, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, IRequestEventListener requestEventListener, RequestMetrics requestMetrics, Map<String, String> clientHeaders) {
+        super(jsonCodecCache, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, requestEventListener, requestMetrics);
+        this.httpClient = httpClient;
+        this.executor = executor;
+        this.taggedFutures = taggedFutures;
+        this.clientHeaders = clientHeaders;
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> get(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequest(HttpMethod.GET, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> post(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequest(HttpMethod.POST, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> put(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequest(HttpMethod.PUT, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> patch(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequest(HttpMethod.PATCH, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void getAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doSimpleRequestAsync(HttpMethod.GET, requestProperties, requestResponseListener);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void postAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doSimpleRequestAsync(HttpMethod.POST, requestProperties, requestResponseListener);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void putAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doSimpleRequestAsync(HttpMethod.PUT, requestProperties, requestResponseListener);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void patchAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doSimpleRequestAsync(HttpMethod.PATCH, requestProperties, requestResponseListener);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> getFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.GET, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> postFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.POST, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> putFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.PUT, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> patchFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.PATCH, requestProperties);
+    }
+
+    @Override
+    public void cancelAll(Object tag) {
+        taggedFutures.cancelAll(tag);
+    }
+
+    @Override
+    protected Map<String, String> getClientHeaders() {
+        return clientHeaders;
+    }
+
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> executeNetworkRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, byte[] serializedBody, Object tag, RequestEvent requestEvent) {
+        boolean compressBody = compiledRequest.shouldCompressBody(serializedBody);
+        byte[] body = compressBody ? CompressionHelper.gzip(serializedBody) : serializedBody;
+
+        HttpRequest request;
+        try {
+            request = createHttpRequest(compiledRequest.getMethod(), uriString, compressBody ? compiledRequest.getCompressedBodyHeaders() : compiledRequest.getHeaders(), body);
+        } catch (IllegalArgumentException e) {
+            // The URI is invalid or a header is one the HTTP client does not allow to set.
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+        }
+
+        if (requestEvent != null) {
+            requestEvent.onEnqueued(body != null ? body.length : 0);
+            requestEvent.onNetworkStart();
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> future = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        taggedFutures.add(tag, future);
+        HttpResponse<byte[]> response;
+        try {
+            response = future.get(getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_INTERRUPTED);
+        } catch (CancellationException e) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_CANCELLED);
+        } catch (ExecutionException e) {
+            return new DataServiceResult<>(e.getCause() instanceof HttpTimeoutException ? RestClientResultCodes.REQUEST_TIMED_OUT : RestClientResultCodes.REQUEST_FAILED);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_TIMED_OUT);
+        } finally {
+            taggedFutures.remove(tag, future);
+        }
+
+        if (requestEvent != null) {
+            requestEvent.onNetworkEnd();
+        }
+        return convertResponse(compiledRequest, uriString, response.statusCode(), getResponseHeaders(response), response.body(), ResponseSource.NETWORK, requestEvent);
+    }
+
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void executeRequestAsync(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Object body, Object tag, final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        executeRequestFuture(compiledRequest, subPathParameters, queryParameters, body, tag).addListener(new IRestFutureListener<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>() {
+            @Override
+            public void onDone(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doneFuture) {
+                requestResponseListener.onRequestResponse(getFutureResult(doneFuture));
+            }
+        });
+    }
+
+    /**
+     * Runs the request on the executor. Cancelling the future interrupts the thread that waits for the response.
+     */
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeRequestFuture(final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, final String[] subPathParameters, final List<AbstractMap.SimpleEntry<String, String>> queryParameters, final Object body, final Object tag) {
+        final RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> future = new RestFuture<>();
+        taggedFutures.add(tag, future);
+
+        final Future<?> task;
+        try {
+            task = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.complete(executeRequest(compiledRequest, subPathParameters, queryParameters, body, tag));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taggedFutures.remove(tag, future);
+            future.complete(new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.REQUEST_FAILED));
+            return future;
+        }
+
+        future.addListener(new IRestFutureListener<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>() {
+            @Override
+            public void onDone(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doneFuture) {
+                taggedFutures.remove(tag, doneFuture);
+                if (doneFuture.isCancelled()) {
+                    task.cancel(true);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Creates the request for the HTTP client. The Content-Type header is set when there is a body and can be overridden by the given headers.
+     * @throws IllegalArgumentException when the URI is invalid or a header is not allowed
+     */
+    private HttpRequest createHttpRequest(HttpMethod method, String uriString, Map<String, String> headers, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uriString));
+        if (getTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(getTimeout()));
+        }
+
+        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        if (body != null) {
+            builder.header(CONTENT_TYPE_HEADER, BODY_CONTENT_TYPE);
+            bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(body);
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+
+        return builder.method(method.name(), bodyPublisher).build();
+    }
+
+    /**
+     * Gets the response headers with case-insensitive names and the first value of every header, like Volley provides them.
+     */
+    private static Map<String, String> getResponseHeaders(HttpResponse<?> response) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Gets the result of a request future that is done, with a failure result if it was cancelled or failed.
+     */
+    private static <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> getFutureResult(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> future) {
+        if (future.isCancelled()) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_CANCELLED);
+        }
+        if (future.isCompletedExceptionally()) {
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+        }
+        return future.getNow(null);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doSimpleRequest(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequest(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doSimpleRequestAsync(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doRequestAsync(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders(), requestResponseListener);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doSimpleRequestFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestFuture(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
+    }
+}
@@ -0,0 +1,94 @@
+package stannieman.rest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.http.HttpClient;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import stannieman.rest.models.JdkHttpRestClientFactoryConfig;
+
+/**
+ * Factory that produces JdkHttpRestClients.
+ * The clients of a factory share its HTTP client, so they share its connection pool, and its executor.
+ */
+public final class JdkHttpRestClientFactory extends CoreRestClientFactoryBase implements IJdkHttpRestClientFactory {
+    private static final int DEFAULT_THREAD_POOL_SIZE = 16;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final TaggedFutures taggedFutures = new TaggedFutures();
+
+    private HttpClient httpClient;
+    private ExecutorService executor;
+    private Map<String, String> headers;
+
+    @Override
+    public IRestClient getRestClient(String endpointPath) {
+        configLock.lock();
+        try {
+            return new JdkHttpRestClient(jsonCodecCache, httpClient, executor, taggedFutures, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, requestEventListener, requestMetricsEnabled ? new RequestMetrics() : null, headers);
+        }
+        finally {
+            configLock.unlock();
+        }
+    }
+
+    @Override
+    public void loadConfig(JdkHttpRestClientFactoryConfig config) {
+        configLock.lock();
+
+        super.loadConfig(config);
+        headers = config.getHeaders() != null ? Collections.unmodifiableMap(new HashMap<>(config.getHeaders())) : null;
+
+        HttpClient newHttpClient = config.getHttpClient();
+        if (newHttpClient != null) {
+            httpClient = newHttpClient;
+        }
+        else if (httpClient == null) {
+            httpClient = HttpClient.newHttpClient();
+        }
+
+        ExecutorService newExecutor = config.getExecutor();
+        if (newExecutor != null) {
+            executor = newExecutor;
+        }
+        else if (executor == null) {
+            executor = createExecutor(config.getThreadPoolSize() > 0 ? config.getThreadPoolSize() : DEFAULT_THREAD_POOL_SIZE);
+        }
+
+        configLock.unlock();
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per request if the JVM supports them,
+     * otherwise a pool of daemon threads that stop when they are idle.
+     * Virtual threads are looked up by reflection because the module also runs on Java 11.
+     */
+    private static ExecutorService createExecutor(int threadPoolSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            // Before Java 21 the method does not exist or throws because virtual threads are a preview feature.
+        }
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "RestClient-request-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
@@ -0,0 +1,71 @@
+package stannieman.rest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the futures of the tagged requests in flight so they can be cancelled by tag.
+ */
+final class TaggedFutures {
+    private final Map<Object, Set<Future<?>>> futuresByTag = new HashMap<>();
+
+    /**
+     * Adds the future of a request.
+     * @param tag tag of the request, the future is not kept if it is null
+     * @param future future that cancels the request
+     */
+    void add(Object tag, Future<?> future) {
+        if (tag == null) {
+            return;
+        }
+
+        synchronized (futuresByTag) {
+            Set<Future<?>> futures = futuresByTag.get(tag);
+            if (futures == null) {
+                futures = new HashSet<>();
+                futuresByTag.put(tag, futures);
+            }
+            futures.add(future);
+        }
+    }
+
+    /**
+     * Removes the future of a request that is done.
+     */
+    void remove(Object tag, Future<?> future) {
+        if (tag == null) {
+            return;
+        }
+
+        synchronized (futuresByTag) {
+            Set<Future<?>> futures = futuresByTag.get(tag);
+            if (futures != null && futures.remove(future) && futures.isEmpty()) {
+                futuresByTag.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Cancels the futures of all requests with the given tag.
+     */
+    void cancelAll(Object tag) {
+        List<Future<?>> futures;
+        synchronized (futuresByTag) {
+            Set<Future<?>> taggedFutures = futuresByTag.remove(tag);
+            if (taggedFutures == null) {
+                return;
+            }
+            futures = new ArrayList<>(taggedFutures);
+        }
+
+        // Cancelling runs listeners, so it is done outside of the lock.
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+}
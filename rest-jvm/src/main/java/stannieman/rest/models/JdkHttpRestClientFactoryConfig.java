@@ -0,0 +1,86 @@
+package stannieman.rest.models;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Class containing configuration for a JdkHttpRestClientFactory.
+ */
+public class JdkHttpRestClientFactoryConfig extends CoreConfigBase {
+    private HttpClient httpClient;
+    private ExecutorService executor;
+    private int threadPoolSize;
+    private Map<String, String> headers;
+
+    /**
+     * Gets the HTTP client used for doing network requests.
+     * @return HTTP client
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Sets the HTTP client used for doing network requests.
+     * If this property is null the REST client factory will create a client with the default settings.
+     * @param httpClient HTTP client
+     */
+    public void setHttpClient(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Gets the executor that runs asynchronous requests and requests with a future.
+     * @return executor
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that runs asynchronous requests and requests with a future.
+     * Every request blocks a thread of the executor while it waits for the response.
+     * If this property is null the REST client factory creates an executor with a virtual thread per request
+     * when it runs on Java 21 or newer, and a pool of threadPoolSize threads otherwise.
+     * @param executor executor
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the number of threads of the executor the factory creates when virtual threads are not available.
+     * @return number of threads
+     */
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    /**
+     * Sets the number of threads of the executor the factory creates when virtual threads are not available.
+     * It limits the number of asynchronous requests in flight, the other requests wait for a thread.
+     * If this property is 0 or less, 16 threads are used.
+     * @param threadPoolSize number of threads
+     */
+    public void setThreadPoolSize(int threadPoolSize) {
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    /**
+     * Gets the headers added to every request.
+     * @return headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Sets the headers added to every request, for example an Authorization header.
+     * Headers of a request override these headers.
+     * @param headers headers
+     */
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+}
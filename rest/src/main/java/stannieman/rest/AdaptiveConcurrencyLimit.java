@@ -0,0 +1,61 @@
+package stannieman.rest;
+
+/**
+ * Concurrency limit of a host that adapts to its observed round trip times and errors with additive increase, multiplicative decrease.
+ * A request that fails without a response, gets a 429 or 5xx response, times out, or takes more than
+ * RTT_TOLERANCE times the lowest recent round trip time, is a sign of overload and shrinks the limit by BACKOFF_RATIO.
+ * Any other request grows the limit by 1 / limit, which adds about 1 per round trip of a full window,
+ * but only while the limit is actually used so an idle host does not build up a limit it cannot handle.
+ * Not thread-safe, the request scheduler synchronizes access.
+ */
+final class AdaptiveConcurrencyLimit {
+    private static final int MIN_LIMIT = 1;
+    private static final double BACKOFF_RATIO = 0.75;
+    private static final double RTT_TOLERANCE = 2.0;
+    // The lowest round trip time is forgotten regularly so the limit recovers when the normal latency of the host goes up.
+    private static final int MIN_RTT_RESET_SAMPLE_COUNT = 500;
+
+    private final int maxLimit;
+    private double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int sampleCountSinceReset;
+
+    /**
+     * @param initialLimit limit to start with
+     * @param maxLimit limit that is never exceeded
+     */
+    AdaptiveConcurrencyLimit(int initialLimit, int maxLimit) {
+        this.maxLimit = maxLimit;
+        limit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Updates the limit with a finished request.
+     * @param rttNanos time between a network dispatcher taking the request and its completion
+     * @param inFlightCount number of requests that were in flight, including this one
+     * @param isOverloaded whether the request failed in a way that signals overload
+     */
+    void onRequestFinished(long rttNanos, int inFlightCount, boolean isOverloaded) {
+        if (!isOverloaded) {
+            if (++sampleCountSinceReset >= MIN_RTT_RESET_SAMPLE_COUNT) {
+                minRttNanos = rttNanos;
+                sampleCountSinceReset = 0;
+            }
+            else if (rttNanos < minRttNanos) {
+                minRttNanos = rttNanos;
+            }
+            isOverloaded = rttNanos > minRttNanos * RTT_TOLERANCE;
+        }
+
+        if (isOverloaded) {
+            limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+        }
+        else if (inFlightCount * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+}
@@ -2,11 +2,8 @@ package stannieman.rest;
 
 import android.util.Base64;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.RetryPolicy;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,83 +21,91 @@ public final class BasicAuthRestClient extends RestClientBase {
     private static final String BasicAuthHeaderValuePrefix = "Basic ";
     private final Map<String, String> authHeader;
 
-    BasicAuthRestClient(ObjectMapper objectMapper, RequestQueue requestQueue, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, RetryPolicy retryPolicy, String username, String password) {
-        super(objectMapper, requestQueue, schema, host, port, apiBasePath, endpointPath, timeout, retryPolicy);
+    BasicAuthRestClient(JsonCodecCache jsonCodecCache, RequestScheduler requestScheduler, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, HedgeBudget hedgeBudget, IRequestEventListener requestEventListener, RequestMetrics requestMetrics, String username, String password) {
+        super(jsonCodecCache, requestScheduler, schema, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetrics);
         authHeader = getBasicAuthHeader(username, password);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> get(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithAuthHeader(Request.Method.GET, requestProperties);
+        return doRequestWithAuthHeader(HttpMethod.GET, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> post(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithAuthHeader(Request.Method.POST, requestProperties);
+        return doRequestWithAuthHeader(HttpMethod.POST, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> put(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithAuthHeader(Request.Method.PUT, requestProperties);
+        return doRequestWithAuthHeader(HttpMethod.PUT, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> patch(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithAuthHeader(Request.Method.PATCH, requestProperties);
+        return doRequestWithAuthHeader(HttpMethod.PATCH, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void getAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithAuthHeaderAsync(Request.Method.GET, requestProperties, requestResponseListener);
+        doRequestWithAuthHeaderAsync(HttpMethod.GET, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void postAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithAuthHeaderAsync(Request.Method.POST, requestProperties, requestResponseListener);
+        doRequestWithAuthHeaderAsync(HttpMethod.POST, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void putAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithAuthHeaderAsync(Request.Method.PUT, requestProperties, requestResponseListener);
+        doRequestWithAuthHeaderAsync(HttpMethod.PUT, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void patchAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithAuthHeaderAsync(Request.Method.PATCH, requestProperties, requestResponseListener);
+        doRequestWithAuthHeaderAsync(HttpMethod.PATCH, requestProperties, requestResponseListener);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequestWithAuthHeader(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequest(method, requestProperties, requestProperties.getQueryParameters(), getHeadersWithAuthHeader(requestProperties.getHeaders()));
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> getFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithAuthHeaderFuture(HttpMethod.GET, requestProperties);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestWithAuthHeaderAsync(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        new DoRequestWithAuthHeaderAsyncTask<>(method, requestProperties, requestResponseListener).execute();
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> postFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithAuthHeaderFuture(HttpMethod.POST, requestProperties);
     }
 
-    private class DoRequestWithAuthHeaderAsyncTask<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> extends DoRequestAsyncTaskBase<SuccessResponseDataType, ErrorResponseDataType> {
-        DoRequestWithAuthHeaderAsyncTask(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-            super(method, requestProperties, requestResponseListener);
-        }
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> putFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithAuthHeaderFuture(HttpMethod.PUT, requestProperties);
+    }
 
-        @Override
-        protected IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doInBackground(Void... voids) {
-            return doRequestWithAuthHeader(method, requestProperties);
-        }
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> patchFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithAuthHeaderFuture(HttpMethod.PATCH, requestProperties);
     }
 
-    private Map<String, String> getBasicAuthHeader(String username, String password) {
-        Map<String, String> basicAuthHeader = new HashMap<>();
-        basicAuthHeader.put(AuthHeaderKey, BasicAuthHeaderValuePrefix + Base64.encodeToString(String.format("%s:%s", username, password).getBytes(), Base64.NO_WRAP));
-        return basicAuthHeader;
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequestWithAuthHeader(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequest(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
     }
 
-    private Map<String, String> getHeadersWithAuthHeader(Map<String, String> headers) {
-        Map<String, String> headersWithAuthHeader = new HashMap<>(authHeader);
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestWithAuthHeaderAsync(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doRequestAsync(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders(), requestResponseListener);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doRequestWithAuthHeaderFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestFuture(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
+    }
 
-        if (headers != null) {
-            headersWithAuthHeader.putAll(headers);
-        }
+    @Override
+    protected Map<String, String> getClientHeaders() {
+        return authHeader;
+    }
 
-        return headersWithAuthHeader;
+    private Map<String, String> getBasicAuthHeader(String username, String password) {
+        Map<String, String> basicAuthHeader = new HashMap<>();
+        basicAuthHeader.put(AuthHeaderKey, BasicAuthHeaderValuePrefix + Base64.encodeToString(String.format("%s:%s", username, password).getBytes(), Base64.NO_WRAP));
+        return Collections.unmodifiableMap(basicAuthHeader);
     }
 }
@@ -22,10 +22,12 @@ public final class BasicAuthRestClientFactory extends RestClientFactoryBase impl
     @Override
     public IRestClient getRestClient(String endpointPath) {
         configLock.lock();
-        IRestClient client = new BasicAuthRestClient(objectMapper, requestQueue, scheme, host, port, apiBasePath, endpointPath, timeout, retryPolicy, username, password);
-        configLock.unlock();
-
-        return client;
+        try {
+            return new BasicAuthRestClient(jsonCodecCache, requestScheduler, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetricsEnabled ? new RequestMetrics() : null, username, password);
+        }
+        finally {
+            configLock.unlock();
+        }
     }
 
     @Override
@@ -0,0 +1,154 @@
+package stannieman.rest;
+
+import java.util.concurrent.TimeUnit;
+
+import stannieman.rest.models.CircuitBreakerOptions;
+import stannieman.rest.models.CircuitState;
+
+/**
+ * Circuit breaker of a host that opens when too many of its recent requests failed or were slow.
+ * Not thread-safe, the request scheduler synchronizes access.
+ */
+final class CircuitBreaker {
+    /**
+     * Permission returned when a request must fail immediately.
+     */
+    static final long NO_PERMISSION = -1;
+    /**
+     * Permission of a request that is not a probe of a half open breaker.
+     */
+    static final long NOT_A_PROBE = 0;
+
+    private final int minRequestCount;
+    private final double failureRateThreshold;
+    private final double slowRequestRateThreshold;
+    private final long slowRequestDurationNanos;
+    private final long openDurationNanos;
+    private final int probeCount;
+
+    private final boolean[] failedOutcomes;
+    private final boolean[] slowOutcomes;
+    private int outcomeCount;
+    private int nextOutcomeIndex;
+    private int failedCount;
+    private int slowCount;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedNanos;
+    private long halfOpenGeneration;
+    private int permittedProbeCount;
+    private int succeededProbeCount;
+    private long shortCircuitedCount;
+
+    CircuitBreaker(CircuitBreakerOptions options) {
+        minRequestCount = Math.max(1, options.getMinRequestCount());
+        failureRateThreshold = options.getFailureRateThreshold();
+        slowRequestRateThreshold = options.getSlowRequestRateThreshold();
+        slowRequestDurationNanos = TimeUnit.MILLISECONDS.toNanos(options.getSlowRequestDuration());
+        openDurationNanos = TimeUnit.MILLISECONDS.toNanos(options.getOpenDuration());
+        probeCount = Math.max(1, options.getProbeCount());
+        int windowSize = Math.max(minRequestCount, options.getWindowSize());
+        failedOutcomes = new boolean[windowSize];
+        slowOutcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Checks whether a request can be sent, which for a half open breaker takes one of the probes.
+     * The permission must be passed back with the outcome of the request, so only the outcomes of the probes
+     * of the current half open period decide whether the breaker closes.
+     * @return NO_PERMISSION if the request must fail immediately, NOT_A_PROBE or the half open period the request is a probe of
+     */
+    long tryAcquirePermission(long nowNanos) {
+        if (state == CircuitState.OPEN && nowNanos - openedNanos >= openDurationNanos) {
+            state = CircuitState.HALF_OPEN;
+            halfOpenGeneration++;
+            permittedProbeCount = 0;
+            succeededProbeCount = 0;
+        }
+
+        if (state == CircuitState.OPEN || (state == CircuitState.HALF_OPEN && permittedProbeCount >= probeCount)) {
+            shortCircuitedCount++;
+            return NO_PERMISSION;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            permittedProbeCount++;
+            return halfOpenGeneration;
+        }
+        return NOT_A_PROBE;
+    }
+
+    /**
+     * Records the outcome of a request that got permission.
+     * @param permission permission the request got
+     * @param durationNanos time between a network dispatcher taking the request and its completion
+     * @param isFailed whether the request failed in a way that signals a problem with the host
+     */
+    void onRequestFinished(long permission, long durationNanos, boolean isFailed, long nowNanos) {
+        boolean isSlow = durationNanos > slowRequestDurationNanos;
+        if (state == CircuitState.HALF_OPEN) {
+            if (permission != halfOpenGeneration) {
+                // The request was sent before the breaker became half open, so it is not one of its probes.
+                return;
+            }
+            if (isFailed || isSlow) {
+                open(nowNanos);
+            }
+            else if (++succeededProbeCount >= probeCount) {
+                close();
+            }
+            return;
+        }
+        if (state == CircuitState.OPEN) {
+            // The request was sent before the breaker opened.
+            return;
+        }
+
+        if (outcomeCount == failedOutcomes.length) {
+            failedCount -= failedOutcomes[nextOutcomeIndex] ? 1 : 0;
+            slowCount -= slowOutcomes[nextOutcomeIndex] ? 1 : 0;
+        }
+        else {
+            outcomeCount++;
+        }
+        failedOutcomes[nextOutcomeIndex] = isFailed;
+        slowOutcomes[nextOutcomeIndex] = isSlow;
+        failedCount += isFailed ? 1 : 0;
+        slowCount += isSlow ? 1 : 0;
+        nextOutcomeIndex = (nextOutcomeIndex + 1) % failedOutcomes.length;
+
+        if (outcomeCount >= minRequestCount && (failedCount >= failureRateThreshold * outcomeCount || slowCount >= slowRequestRateThreshold * outcomeCount)) {
+            open(nowNanos);
+        }
+    }
+
+    /**
+     * Gives back the permission of a request without outcome, like a request that was cancelled by its caller.
+     * @param permission permission the request got
+     */
+    void onRequestIgnored(long permission) {
+        if (state == CircuitState.HALF_OPEN && permission == halfOpenGeneration) {
+            permittedProbeCount--;
+        }
+    }
+
+    CircuitState getState() {
+        return state;
+    }
+
+    long getShortCircuitedCount() {
+        return shortCircuitedCount;
+    }
+
+    private void open(long nowNanos) {
+        state = CircuitState.OPEN;
+        openedNanos = nowNanos;
+    }
+
+    private void close() {
+        state = CircuitState.CLOSED;
+        outcomeCount = 0;
+        nextOutcomeIndex = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+}
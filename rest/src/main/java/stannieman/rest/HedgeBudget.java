@@ -0,0 +1,60 @@
+package stannieman.rest;
+
+/**
+ * Limits the duplicate requests of hedged requests of all clients of a factory to a fraction of their hedged requests.
+ * Every hedged request adds the ratio to the balance and every duplicate request takes 1 from it.
+ * All methods are thread-safe.
+ */
+public final class HedgeBudget {
+    private static final double MAX_BALANCE = 10;
+
+    private final double ratio;
+    private double balance = 1;
+    private long hedgeCount;
+    private long exhaustedCount;
+
+    /**
+     * @param ratio fraction of the hedged requests that can send a duplicate request
+     */
+    HedgeBudget(double ratio) {
+        this.ratio = ratio;
+    }
+
+    double getRatio() {
+        return ratio;
+    }
+
+    synchronized void onRequest() {
+        balance = Math.min(MAX_BALANCE, balance + ratio);
+    }
+
+    /**
+     * Takes a duplicate request from the budget.
+     * @return whether the duplicate request is allowed
+     */
+    synchronized boolean tryHedge() {
+        if (balance < 1) {
+            exhaustedCount++;
+            return false;
+        }
+        balance--;
+        hedgeCount++;
+        return true;
+    }
+
+    /**
+     * Gets the number of duplicate requests that were sent.
+     * @return number of hedges
+     */
+    public synchronized long getHedgeCount() {
+        return hedgeCount;
+    }
+
+    /**
+     * Gets the number of duplicate requests that were not sent because the budget was used up.
+     * @return number of denied hedges
+     */
+    public synchronized long getExhaustedCount() {
+        return exhaustedCount;
+    }
+}
@@ -0,0 +1,133 @@
+package stannieman.rest;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import stannieman.commonservices.helpers.ResultCodeHelper;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.ResponseSource;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Races an asynchronous request against a duplicate that is sent if the request is still in flight after the hedge delay.
+ * The first response is delivered to the listener and the other request is cancelled.
+ * Only a successful response of the duplicate is used, failures and error responses are only delivered from the primary request.
+ * If the primary request fails without a response while the duplicate is in flight, the result of the duplicate is awaited instead,
+ * because the duplicate may get a response where the connection of the primary request was reset or dropped.
+ */
+final class HedgedRequest<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> {
+    private static final Handler MAIN_THREAD_HANDLER = new Handler(Looper.getMainLooper());
+
+    /**
+     * Creates and queues the duplicate request.
+     */
+    interface HedgeStarter<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> {
+        RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> start(IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> hedgeListener, long remainingTimeout);
+    }
+
+    private final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener;
+    private final LatencyTracker latencyTracker;
+    private final AtomicBoolean isDone = new AtomicBoolean();
+    private final long startNanos = System.nanoTime();
+    private final Object lock = new Object();
+    private volatile RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> primaryRequest;
+    private volatile RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> hedgeRequest;
+    // Guarded by lock.
+    private boolean isHedgeFinished;
+    private IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> primaryFailure;
+
+    private final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> primaryListener = new IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType>() {
+        @Override
+        public void onRequestResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+            // Timeouts and cancellations are delivered right away, the duplicate has no more time left than the primary request.
+            if (ResultCodeHelper.GetResultCodeOrNull(result, RestClientResultCodes.class) == RestClientResultCodes.REQUEST_FAILED) {
+                synchronized (lock) {
+                    if (hedgeRequest != null && !isHedgeFinished) {
+                        primaryFailure = result;
+                        return;
+                    }
+                }
+            }
+            finish(result, hedgeRequest);
+        }
+    };
+
+    private final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> hedgeListener = new IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType>() {
+        @Override
+        public void onRequestResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+            // A failure or error response of the duplicate must not hide the response of the primary request, which is still in flight.
+            // Like the duplicate of a synchronous request, only a successful response wins.
+            if (result.getData() != null && result.getData().isSuccess()) {
+                finish(result, primaryRequest);
+                return;
+            }
+
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> awaitingPrimaryFailure;
+            synchronized (lock) {
+                isHedgeFinished = true;
+                awaitingPrimaryFailure = primaryFailure;
+            }
+            if (awaitingPrimaryFailure != null) {
+                // The primary request failed without a response, so an error response of the duplicate is all there is.
+                finish(result.getData() != null ? result : awaitingPrimaryFailure, null);
+            }
+        }
+    };
+
+    HedgedRequest(IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener, LatencyTracker latencyTracker) {
+        this.requestResponseListener = requestResponseListener;
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * Gets the listener for the primary request.
+     */
+    IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> getPrimaryListener() {
+        return primaryListener;
+    }
+
+    /**
+     * Sends the duplicate request after the delay if the primary request did not finish and the budget allows it.
+     * @param delay delay in milliseconds
+     * @param timeout timeout of the primary request in milliseconds
+     */
+    void start(final RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> primaryRequest, long delay, final long timeout, final HedgeBudget hedgeBudget, final HedgeStarter<SuccessResponseDataType, ErrorResponseDataType> hedgeStarter) {
+        this.primaryRequest = primaryRequest;
+        hedgeBudget.onRequest();
+        MAIN_THREAD_HANDLER.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                long remainingTimeout = timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                if (isDone.get() || primaryRequest.isCanceled() || remainingTimeout <= 0 || !hedgeBudget.tryHedge()) {
+                    return;
+                }
+                RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> startedHedgeRequest = hedgeStarter.start(hedgeListener, remainingTimeout);
+                synchronized (lock) {
+                    hedgeRequest = startedHedgeRequest;
+                }
+                if (isDone.get()) {
+                    startedHedgeRequest.cancel();
+                }
+            }
+        }, delay);
+    }
+
+    private void finish(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result, RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> losingRequest) {
+        if (!isDone.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (losingRequest != null) {
+            losingRequest.cancel();
+        }
+        RestResult<SuccessResponseDataType, ErrorResponseDataType> restResult = result.getData();
+        if (restResult != null && restResult.getResponseSource() != ResponseSource.CACHE) {
+            latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+        requestResponseListener.onRequestResponse(result);
+    }
+}
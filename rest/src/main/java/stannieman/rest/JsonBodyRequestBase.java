@@ -0,0 +1,219 @@
+package stannieman.rest;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.RetryPolicy;
+import com.android.volley.VolleyError;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import stannieman.rest.models.RetryOptions;
+
+abstract class JsonBodyRequestBase<ResponseType> extends Request<ResponseType> {
+    private static final String BODY_CONTENT_TYPE = "application/json; charset=UTF-8";
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private static final String NETWORK_START_MARKER = "network-queue-take";
+    private static final String NETWORK_END_MARKER = "network-http-complete";
+
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final ResponseCache responseCache;
+    private Priority priority = Priority.NORMAL;
+    private volatile boolean isOverloadSignalled;
+    private RetryOptions retryOptions;
+    private RequestEvent requestEvent;
+    private Runnable networkCallCanceller;
+    private volatile long networkStartNanos;
+
+    /**
+     * @param body UTF-8 encoded JSON body, this array is sent as is and must not be modified afterwards
+     * @param responseCache cache to store the response in, or null if the response must not be cached
+     */
+    JsonBodyRequestBase(int method, String url, Map<String, String> headers, byte[] body, RetryPolicy retryPolicy, ResponseCache responseCache, Response.ErrorListener errorListener) {
+        super(method, url, errorListener);
+        this.headers = headers;
+        this.body = body != null ? body : EMPTY_BODY;
+        this.responseCache = responseCache;
+        this.setRetryPolicy(retryPolicy);
+        // The cache policy of the request is applied by the REST client instead of the cache dispatcher.
+        this.setShouldCache(false);
+    }
+
+    /**
+     * Stores a successful response in the response cache if the request has one.
+     * @param response network response
+     * @return the response to convert, which is a 200 OK response with the cached data for a 304 Not Modified response
+     */
+    NetworkResponse updateResponseCache(NetworkResponse response) {
+        return responseCache != null ? responseCache.put(getCacheKey(), response) : response;
+    }
+
+    /**
+     * Gets the Volley method of an HTTP method.
+     * @param method HTTP method
+     * @return Volley method
+     */
+    static int getVolleyMethod(HttpMethod method) {
+        switch (method) {
+            case POST:
+                return Method.POST;
+            case PUT:
+                return Method.PUT;
+            case PATCH:
+                return Method.PATCH;
+            default:
+                return Method.GET;
+        }
+    }
+
+    /**
+     * Sets the priority of the request, which must be done before it is added to a queue.
+     * @param priority request priority
+     */
+    void setPriority(RequestPriority priority) {
+        switch (priority) {
+            case LOW:
+                this.priority = Priority.LOW;
+                break;
+            case HIGH:
+                this.priority = Priority.HIGH;
+                break;
+            case IMMEDIATE:
+                this.priority = Priority.IMMEDIATE;
+                break;
+            default:
+                this.priority = Priority.NORMAL;
+                break;
+        }
+    }
+
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets how the request is retried, which must be done before it is added to a queue.
+     * @param retryOptions retry options or null to use the default retry options of the network
+     */
+    void setRetryOptions(RetryOptions retryOptions) {
+        this.retryOptions = retryOptions;
+    }
+
+    RetryOptions getRetryOptions() {
+        return retryOptions;
+    }
+
+    /**
+     * Sets the event that records the network phase of the request and records that the request is enqueued,
+     * which must be done right before it is added to a queue.
+     * @param requestEvent request event
+     */
+    void setRequestEvent(RequestEvent requestEvent) {
+        this.requestEvent = requestEvent;
+        requestEvent.onEnqueued(body.length);
+    }
+
+    RequestEvent getRequestEvent() {
+        return requestEvent;
+    }
+
+    /**
+     * Records the network phase from the markers the network dispatcher adds to the request.
+     */
+    @Override
+    public void addMarker(String tag) {
+        super.addMarker(tag);
+        if (NETWORK_START_MARKER.equals(tag)) {
+            networkStartNanos = System.nanoTime();
+        }
+        if (requestEvent != null) {
+            if (NETWORK_START_MARKER.equals(tag)) {
+                requestEvent.onNetworkStart();
+            }
+            else if (NETWORK_END_MARKER.equals(tag)) {
+                requestEvent.onNetworkEnd();
+            }
+        }
+    }
+
+    /**
+     * Gets the time a network dispatcher took the request, so the time it waited in the request queue can be left out.
+     * @return System.nanoTime() when the request was taken or 0 if it was not taken yet
+     */
+    long getNetworkStartNanos() {
+        return networkStartNanos;
+    }
+
+    /**
+     * Sets the action that aborts the network call of the request when it is cancelled,
+     * because cancelling a Volley request does not stop a call that is in flight.
+     * The action is run right away if the request is already cancelled.
+     * @param networkCallCanceller action that aborts the network call
+     */
+    void setNetworkCallCanceller(Runnable networkCallCanceller) {
+        synchronized (this) {
+            if (!isCanceled()) {
+                this.networkCallCanceller = networkCallCanceller;
+                return;
+            }
+        }
+        networkCallCanceller.run();
+    }
+
+    @Override
+    public void cancel() {
+        Runnable canceller;
+        synchronized (this) {
+            super.cancel();
+            canceller = networkCallCanceller;
+            networkCallCanceller = null;
+        }
+        if (canceller != null) {
+            canceller.run();
+        }
+    }
+
+    /**
+     * Marks that the request failed in a way that signals an overloaded host, for the adaptive concurrency limit.
+     */
+    void signalOverload() {
+        isOverloadSignalled = true;
+    }
+
+    boolean isOverloadSignalled() {
+        return isOverloadSignalled;
+    }
+
+    /**
+     * Signals overload for errors without a response, 429 Too Many Requests and server errors.
+     */
+    @Override
+    protected VolleyError parseNetworkError(VolleyError volleyError) {
+        if (requestEvent != null) {
+            requestEvent.onNetworkEnd();
+        }
+        NetworkResponse response = volleyError.networkResponse;
+        if (response == null || response.statusCode == 429 || response.statusCode >= 500) {
+            signalOverload();
+        }
+        return volleyError;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return headers != null ? headers : new HashMap<String, String>();
+    }
+
+    @Override
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public String getBodyContentType() {
+        return BODY_CONTENT_TYPE;
+    }
+}
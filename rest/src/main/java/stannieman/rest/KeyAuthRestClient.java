@@ -1,96 +1,114 @@
 package stannieman.rest;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.RetryPolicy;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.AbstractMap;
-import java.util.ArrayList;
 import java.util.List;
 
+import stannieman.commonservices.models.DataServiceResult;
 import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.helpers.QueryParamsHelper;
 import stannieman.rest.models.ErrorResponseDataBase;
 import stannieman.rest.models.RequestProperties;
 import stannieman.rest.models.RestResult;
+import stannieman.rest.models.RouteTemplate;
 
 /**
  * A simple REST client that supports authentication with an API key.
  * Authentication is done by passing an API key as query parameter in the request URI.
  */
 public final class KeyAuthRestClient extends RestClientBase {
-    private final AbstractMap.SimpleEntry<String, String> keyQueryParameter;
+    private final String encodedKeyQueryParameter;
 
-    KeyAuthRestClient(ObjectMapper objectMapper, RequestQueue requestQueue, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, RetryPolicy retryPolicy, String keyParameterName, String key) {
-        super(objectMapper, requestQueue, schema, host, port, apiBasePath, endpointPath, timeout, retryPolicy);
-        keyQueryParameter = new AbstractMap.SimpleEntry<>(keyParameterName, key);
+    KeyAuthRestClient(JsonCodecCache jsonCodecCache, RequestScheduler requestScheduler, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, HedgeBudget hedgeBudget, IRequestEventListener requestEventListener, RequestMetrics requestMetrics, String keyParameterName, String key) {
+        super(jsonCodecCache, requestScheduler, schema, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetrics);
+        encodedKeyQueryParameter = keyParameterName != null && key != null ? QueryParamsHelper.encodeQueryComponent(keyParameterName) + "=" + QueryParamsHelper.encodeQueryComponent(key) : null;
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> get(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithKeyParameter(Request.Method.GET, requestProperties);
+        return doRequestWithKeyParameter(HttpMethod.GET, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> post(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithKeyParameter(Request.Method.POST, requestProperties);
+        return doRequestWithKeyParameter(HttpMethod.POST, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> put(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithKeyParameter(Request.Method.PUT, requestProperties);
+        return doRequestWithKeyParameter(HttpMethod.PUT, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> patch(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequestWithKeyParameter(Request.Method.PATCH, requestProperties);
+        return doRequestWithKeyParameter(HttpMethod.PATCH, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void getAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithKeyParameterAsync(Request.Method.GET, requestProperties, requestResponseListener);
+        doRequestWithKeyParameterAsync(HttpMethod.GET, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void postAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithKeyParameterAsync(Request.Method.POST, requestProperties, requestResponseListener);
+        doRequestWithKeyParameterAsync(HttpMethod.POST, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void putAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithKeyParameterAsync(Request.Method.PUT, requestProperties, requestResponseListener);
+        doRequestWithKeyParameterAsync(HttpMethod.PUT, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void patchAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestWithKeyParameterAsync(Request.Method.PATCH, requestProperties, requestResponseListener);
+        doRequestWithKeyParameterAsync(HttpMethod.PATCH, requestProperties, requestResponseListener);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequestWithKeyParameter(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doRequest(method, requestProperties, getQueryParametersWithKey(requestProperties.getQueryParameters()), requestProperties.getHeaders());
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> getFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithKeyParameterFuture(HttpMethod.GET, requestProperties);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestWithKeyParameterAsync(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        new DoRequestWithKeyParameterAsyncTask<>(method, requestProperties, requestResponseListener).execute();
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> postFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithKeyParameterFuture(HttpMethod.POST, requestProperties);
     }
 
-    private class DoRequestWithKeyParameterAsyncTask<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> extends DoRequestAsyncTaskBase<SuccessResponseDataType, ErrorResponseDataType> {
-        DoRequestWithKeyParameterAsyncTask(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-            super(method, requestProperties, requestResponseListener);
-        }
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> putFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithKeyParameterFuture(HttpMethod.PUT, requestProperties);
+    }
 
-        @Override
-        protected IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doInBackground(Void... voids) {
-            return doRequestWithKeyParameter(method, requestProperties);
-        }
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> patchFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestWithKeyParameterFuture(HttpMethod.PATCH, requestProperties);
     }
 
-    private List<AbstractMap.SimpleEntry<String, String>> getQueryParametersWithKey(List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
-        List<AbstractMap.SimpleEntry<String, String>> queryParametersWithKey = new ArrayList<>();
-        queryParametersWithKey.add(keyQueryParameter);
-        if (queryParameters != null) {
-            queryParametersWithKey.addAll(queryParameters);
+    @Override
+    protected String getEncodedQueryPrefix() {
+        return encodedKeyQueryParameter;
+    }
+
+    /**
+     * Fails every request with CANNOT_CREATE_URI when the key or its parameter name is not set.
+     */
+    @Override
+    IHasDataAndSuccessState<String> getUriString(RouteTemplate routeTemplate, String subPath, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
+        if (encodedKeyQueryParameter == null) {
+            return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_URI);
         }
-        return queryParametersWithKey;
+        return super.getUriString(routeTemplate, subPath, subPathParameters, queryParameters);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequestWithKeyParameter(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequest(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestWithKeyParameterAsync(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doRequestAsync(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders(), requestResponseListener);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doRequestWithKeyParameterFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestFuture(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
     }
 }
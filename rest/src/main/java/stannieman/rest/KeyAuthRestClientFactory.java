@@ -22,10 +22,12 @@ public final class KeyAuthRestClientFactory extends RestClientFactoryBase implem
     @Override
     public IRestClient getRestClient(String endpointPath) {
         configLock.lock();
-        IRestClient client = new KeyAuthRestClient(objectMapper, requestQueue, scheme, host, port, apiBasePath, endpointPath, timeout, retryPolicy, keyParameterName, key);
-        configLock.unlock();
-
-        return client;
+        try {
+            return new KeyAuthRestClient(jsonCodecCache, requestScheduler, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetricsEnabled ? new RequestMetrics() : null, keyParameterName, key);
+        }
+        finally {
+            configLock.unlock();
+        }
     }
 
     @Override
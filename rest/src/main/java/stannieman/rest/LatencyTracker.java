@@ -0,0 +1,43 @@
+package stannieman.rest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent requests to an endpoint to compute a percentile from.
+ * All methods are thread-safe.
+ */
+final class LatencyTracker {
+    private static final int CAPACITY = 256;
+    private static final int MIN_SAMPLE_COUNT = 20;
+
+    private final long[] latencies = new long[CAPACITY];
+    private int count;
+    private int nextIndex;
+
+    synchronized void record(long latency) {
+        latencies[nextIndex] = latency;
+        nextIndex = (nextIndex + 1) % CAPACITY;
+        if (count < CAPACITY) {
+            count++;
+        }
+    }
+
+    /**
+     * Gets a percentile of the recent latencies.
+     * @param percentile percentile between 0 and 1
+     * @param defaultLatency latency to return if too few latencies were recorded
+     * @return latency at the percentile
+     */
+    long getPercentile(double percentile, long defaultLatency) {
+        long[] sortedLatencies;
+        synchronized (this) {
+            if (count < MIN_SAMPLE_COUNT) {
+                return defaultLatency;
+            }
+            sortedLatencies = Arrays.copyOf(latencies, count);
+        }
+        Arrays.sort(sortedLatencies);
+        int index = (int) Math.ceil(Math.max(0, Math.min(1, percentile)) * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)];
+    }
+}
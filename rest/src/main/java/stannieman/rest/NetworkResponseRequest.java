@@ -1,69 +1,50 @@
 package stannieman.rest;
 
 import com.android.volley.NetworkResponse;
-import com.android.volley.Request;
 import com.android.volley.Response;
 import com.android.volley.RetryPolicy;
-import com.android.volley.toolbox.HttpHeaderParser;
+import com.android.volley.VolleyError;
 
-import java.io.UnsupportedEncodingException;
-import java.util.HashMap;
 import java.util.Map;
 
-class NetworkResponseRequest extends Request<NetworkResponse> {
-    private static final String BODY_CONTENT_TYPE = "application/json; charset=UTF-8";
-
+class NetworkResponseRequest extends JsonBodyRequestBase<NetworkResponse> {
     private final Response.Listener<NetworkResponse> responseListener;
-    private final Map<String, String> headers;
-    private final String body;
-    private final String encoding;
+    private final Response.ErrorListener errorListener;
 
-    public NetworkResponseRequest(int method, String url, Map<String, String> headers, String body, RetryPolicy retryPolicy, Response.Listener<NetworkResponse> responseListener, Response.ErrorListener errorListener, String encoding) {
-        super(method, url, errorListener);
+    /**
+     * @param responseListener listener for the response, or null if the request only updates the response cache
+     */
+    public NetworkResponseRequest(int method, String url, Map<String, String> headers, byte[] body, RetryPolicy retryPolicy, ResponseCache responseCache, Response.Listener<NetworkResponse> responseListener, Response.ErrorListener errorListener) {
+        super(method, url, headers, body, retryPolicy, responseCache, errorListener);
         this.responseListener = responseListener;
-        this.headers = headers;
-        this.body = body;
-        this.encoding = encoding;
-        this.setRetryPolicy(retryPolicy);
-    }
-
-    @Override
-    protected void deliverResponse(NetworkResponse response) {
-        responseListener.onResponse(response);
+        this.errorListener = errorListener;
     }
 
+    /**
+     * Cancels the request and delivers an error to the error listener,
+     * because Volley does not deliver anything for a cancelled request and a waiting caller would block until its timeout.
+     */
     @Override
-    protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
-        return Response.success(response, HttpHeaderParser.parseCacheHeaders(response));
-    }
+    public void cancel() {
+        if (isCanceled()) {
+            return;
+        }
 
-    @Override
-    public Map<String, String> getHeaders() {
-        return headers != null ? headers : new HashMap<String, String>();
+        super.cancel();
+        if (errorListener != null) {
+            errorListener.onErrorResponse(new VolleyError("Request was cancelled."));
+        }
     }
 
     @Override
-    public byte[] getBody() {
-        try {
-            return body != null ? body.getBytes(encoding) : new byte[0];
-        }
-        catch (UnsupportedEncodingException e) {
-            return new byte[0];
+    protected void deliverResponse(NetworkResponse response) {
+        if (responseListener != null) {
+            responseListener.onResponse(response);
         }
     }
 
     @Override
-    public String getBodyContentType() {
-        return BODY_CONTENT_TYPE;
-    }
-
-    public static String parseToString(NetworkResponse response) {
-        String parsed;
-        try {
-            parsed = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-        } catch (UnsupportedEncodingException e) {
-            parsed = new String(response.data);
-        }
-        return parsed;
+    protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
+        return Response.success(updateResponseCache(response), null);
     }
 }
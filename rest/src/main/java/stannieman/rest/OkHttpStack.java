@@ -0,0 +1,185 @@
+package stannieman.rest;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.Header;
+import com.android.volley.Request;
+import com.android.volley.toolbox.BaseHttpStack;
+import com.android.volley.toolbox.HttpResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * HTTP stack that performs the requests of a Volley request queue with OkHttp.
+ * Connections are kept in a connection pool and reused between requests, and when the server
+ * supports HTTP/2 concurrent requests to the same host are multiplexed over a single connection.
+ * HTTP/2 is negotiated with ALPN, which is available from Android 5.0; older versions use pooled HTTP/1.1 connections.
+ * Cancelling a request of this library aborts its call, also while the response is being read.
+ * OkHttp is not a transitive dependency of this library, applications that use this stack must add
+ * com.squareup.okhttp3:okhttp 3.12.x themselves.
+ */
+public final class OkHttpStack extends BaseHttpStack {
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_KEEP_ALIVE_DURATION = 5 * 60 * 1000;
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final OkHttpClient client;
+    private final ConcurrentMap<Integer, OkHttpClient> clientsByTimeout = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a stack with a connection pool that keeps at most 5 idle connections alive for 5 minutes.
+     */
+    public OkHttpStack() {
+        this(DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_DURATION);
+    }
+
+    /**
+     * Creates a stack with its own connection pool.
+     * @param maxIdleConnections maximum number of idle connections kept in the pool
+     * @param keepAliveDuration time in milliseconds an idle connection is kept in the pool
+     */
+    public OkHttpStack(int maxIdleConnections, long keepAliveDuration) {
+        this(new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDuration, TimeUnit.MILLISECONDS))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .build());
+    }
+
+    /**
+     * Creates a stack that uses an existing client, so its connection pool can be shared with other code in the application.
+     * @param client OkHttp client
+     */
+    public OkHttpStack(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public HttpResponse executeRequest(Request<?> request, Map<String, String> additionalHeaders) throws IOException, AuthFailureError {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder().url(request.getUrl());
+
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        for (Map.Entry<String, String> header : additionalHeaders.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        setMethodAndBody(builder, request);
+
+        final Call call = getClientForRequest(request).newCall(builder.build());
+        if (request instanceof JsonBodyRequestBase) {
+            ((JsonBodyRequestBase<?>) request).setNetworkCallCanceller(new Runnable() {
+                @Override
+                public void run() {
+                    call.cancel();
+                }
+            });
+        }
+        Response response = call.execute();
+
+        List<Header> headers = getHeaders(response.headers());
+        ResponseBody body = response.body();
+        if (body == null) {
+            return new HttpResponse(response.code(), headers);
+        }
+
+        long contentLength = body.contentLength();
+        return new HttpResponse(response.code(), headers, contentLength <= Integer.MAX_VALUE ? (int) contentLength : -1, body.byteStream());
+    }
+
+    /**
+     * Gets a client that uses the timeout of the request, or the configured client if the request has no timeout.
+     * A client is derived once per timeout and shares the connection pool and dispatcher of the configured client.
+     */
+    private OkHttpClient getClientForRequest(Request<?> request) {
+        int timeout = request.getTimeoutMs();
+        if (timeout <= 0 || timeout == Integer.MAX_VALUE
+                || (timeout == client.connectTimeoutMillis() && timeout == client.readTimeoutMillis() && timeout == client.writeTimeoutMillis())) {
+            return client;
+        }
+
+        OkHttpClient timeoutClient = clientsByTimeout.get(timeout);
+        if (timeoutClient == null) {
+            timeoutClient = client.newBuilder()
+                    .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .readTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .writeTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .build();
+            OkHttpClient existingClient = clientsByTimeout.putIfAbsent(timeout, timeoutClient);
+            if (existingClient != null) {
+                timeoutClient = existingClient;
+            }
+        }
+        return timeoutClient;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void setMethodAndBody(okhttp3.Request.Builder builder, Request<?> request) throws AuthFailureError {
+        switch (request.getMethod()) {
+            case Request.Method.DEPRECATED_GET_OR_POST:
+                byte[] postBody = request.getPostBody();
+                if (postBody != null) {
+                    builder.post(RequestBody.create(MediaType.parse(request.getPostBodyContentType()), postBody));
+                }
+                else {
+                    builder.get();
+                }
+                break;
+            case Request.Method.GET:
+                builder.get();
+                break;
+            case Request.Method.DELETE:
+                builder.delete();
+                break;
+            case Request.Method.POST:
+                builder.post(createRequestBody(request));
+                break;
+            case Request.Method.PUT:
+                builder.put(createRequestBody(request));
+                break;
+            case Request.Method.PATCH:
+                builder.patch(createRequestBody(request));
+                break;
+            case Request.Method.HEAD:
+                builder.head();
+                break;
+            case Request.Method.OPTIONS:
+                builder.method("OPTIONS", null);
+                break;
+            case Request.Method.TRACE:
+                builder.method("TRACE", null);
+                break;
+            default:
+                throw new IllegalStateException("Unknown method type.");
+        }
+    }
+
+    private static RequestBody createRequestBody(Request<?> request) throws AuthFailureError {
+        byte[] body = request.getBody();
+        return RequestBody.create(MediaType.parse(request.getBodyContentType()), body != null ? body : EMPTY_BODY);
+    }
+
+    private static List<Header> getHeaders(Headers responseHeaders) {
+        int size = responseHeaders.size();
+        List<Header> headers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            headers.add(new Header(responseHeaders.name(i), responseHeaders.value(i)));
+        }
+        return headers;
+    }
+}
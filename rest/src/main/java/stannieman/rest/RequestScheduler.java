@@ -0,0 +1,288 @@
+package stannieman.rest;
+
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import stannieman.rest.models.CircuitBreakerOptions;
+import stannieman.rest.models.CircuitState;
+import stannieman.rest.models.HostConcurrencyStats;
+
+/**
+ * Adds requests to a request queue while limiting the number of requests that are in flight for each host.
+ * Requests that exceed the limit wait here, ordered by priority, until a request for the same host finishes.
+ * If the limit is adaptive it follows the round trip times and errors of the host, so a degrading host gets fewer
+ * requests at once instead of a pile of requests that all time out together.
+ * Requests are rejected when the queue of their host is full.
+ * If a circuit breaker is configured, requests to a host fail immediately while too many of its recent requests failed or were slow,
+ * instead of each waiting for its full timeout.
+ * The request queue itself orders the requests it holds by priority, so interactive requests
+ * are taken by the network dispatchers before queued background requests.
+ * All methods are thread-safe.
+ */
+public final class RequestScheduler implements RequestQueue.RequestFinishedListener<Object> {
+    private static final int DEFAULT_ADAPTIVE_MAX_LIMIT = 64;
+    private static final int ADAPTIVE_INITIAL_LIMIT = 4;
+    private static final Comparator<WaitingRequest> WAITING_REQUEST_COMPARATOR = new Comparator<WaitingRequest>() {
+        @Override
+        public int compare(WaitingRequest left, WaitingRequest right) {
+            int priorityComparison = right.request.getPriority().compareTo(left.request.getPriority());
+            return priorityComparison != 0 ? priorityComparison : Long.compare(left.sequence, right.sequence);
+        }
+    };
+
+    private final RequestQueue requestQueue;
+    private final int maxRequestsPerHost;
+    private final boolean adaptive;
+    private final int maxQueuedRequestsPerHost;
+    private final CircuitBreakerOptions circuitBreakerOptions;
+    private final Map<String, Host> hosts = new HashMap<>();
+    private final Map<Request<?>, InFlightRequest> inFlightRequests = new IdentityHashMap<>();
+    private long nextSequence;
+
+    /**
+     * @param requestQueue queue to add requests to
+     * @param maxRequestsPerHost maximum number of requests in flight for a host or 0 for no limit
+     * @param adaptive whether the limit of a host adapts to its round trip times and errors, with maxRequestsPerHost as upper bound if it is set
+     * @param maxQueuedRequestsPerHost maximum number of requests waiting for a host or 0 for no limit
+     * @param circuitBreakerOptions options of the circuit breaker of each host or null for no circuit breaker
+     */
+    RequestScheduler(RequestQueue requestQueue, int maxRequestsPerHost, boolean adaptive, int maxQueuedRequestsPerHost, CircuitBreakerOptions circuitBreakerOptions) {
+        this.requestQueue = requestQueue;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.adaptive = adaptive;
+        this.maxQueuedRequestsPerHost = maxQueuedRequestsPerHost;
+        this.circuitBreakerOptions = circuitBreakerOptions;
+        if (isTracking()) {
+            requestQueue.addRequestFinishedListener(this);
+        }
+    }
+
+    RequestQueue getRequestQueue() {
+        return requestQueue;
+    }
+
+    /**
+     * Checks whether this scheduler was created with the given settings.
+     */
+    boolean hasSettings(RequestQueue requestQueue, int maxRequestsPerHost, boolean adaptive, int maxQueuedRequestsPerHost, CircuitBreakerOptions circuitBreakerOptions) {
+        return this.requestQueue == requestQueue && this.maxRequestsPerHost == maxRequestsPerHost && this.adaptive == adaptive && this.maxQueuedRequestsPerHost == maxQueuedRequestsPerHost
+                && this.circuitBreakerOptions == circuitBreakerOptions;
+    }
+
+    /**
+     * Adds a request to the request queue, or keeps it waiting if its host has the maximum number of requests in flight.
+     * @param request request to add
+     * @return null if the request was added or waits, REQUEST_REJECTED if the queue of its host is full
+     * or CIRCUIT_OPEN if the circuit breaker of its host is open
+     */
+    RestClientResultCodes add(Request<?> request) {
+        if (!isTracking()) {
+            requestQueue.add(request);
+            return null;
+        }
+
+        String hostKey = getHostKey(request.getUrl());
+        synchronized (this) {
+            Host host = hosts.get(hostKey);
+            if (host == null) {
+                host = new Host();
+                hosts.put(hostKey, host);
+            }
+            long nowNanos = System.nanoTime();
+            long permission = CircuitBreaker.NOT_A_PROBE;
+            if (circuitBreakerOptions != null) {
+                if (host.circuitBreaker == null) {
+                    host.circuitBreaker = new CircuitBreaker(circuitBreakerOptions);
+                }
+                permission = host.circuitBreaker.tryAcquirePermission(nowNanos);
+                if (permission == CircuitBreaker.NO_PERMISSION) {
+                    return RestClientResultCodes.CIRCUIT_OPEN;
+                }
+            }
+            if (host.inFlightCount >= getLimit(host)) {
+                if (maxQueuedRequestsPerHost > 0 && host.waitingRequests.size() >= maxQueuedRequestsPerHost) {
+                    host.rejectedCount++;
+                    if (host.circuitBreaker != null) {
+                        host.circuitBreaker.onRequestIgnored(permission);
+                    }
+                    return RestClientResultCodes.REQUEST_REJECTED;
+                }
+                host.waitingRequests.add(new WaitingRequest(request, permission, nextSequence++));
+                return null;
+            }
+            host.inFlightCount++;
+            inFlightRequests.put(request, new InFlightRequest(nowNanos, permission));
+        }
+        requestQueue.add(request);
+        return null;
+    }
+
+    /**
+     * Cancels all waiting and queued requests with the given tag.
+     * @param tag tag of the requests
+     */
+    void cancelAll(Object tag) {
+        List<Request<?>> waitingRequestsToCancel = new ArrayList<>();
+        synchronized (this) {
+            for (Host host : hosts.values()) {
+                for (WaitingRequest waitingRequest : host.waitingRequests) {
+                    if (waitingRequest.request.getTag() == tag) {
+                        waitingRequestsToCancel.add(waitingRequest.request);
+                    }
+                }
+            }
+        }
+        // Cancelled waiting requests are skipped when a slot frees up.
+        for (Request<?> request : waitingRequestsToCancel) {
+            request.cancel();
+        }
+        requestQueue.cancelAll(tag);
+    }
+
+    /**
+     * Gets the current limit, number of requests in flight, queue depth and circuit state of every host that was requested.
+     * @return stats per host
+     */
+    public synchronized List<HostConcurrencyStats> getHostStats() {
+        List<HostConcurrencyStats> stats = new ArrayList<>(hosts.size());
+        for (Map.Entry<String, Host> entry : hosts.entrySet()) {
+            Host host = entry.getValue();
+            CircuitState circuitState = host.circuitBreaker != null ? host.circuitBreaker.getState() : CircuitState.CLOSED;
+            long shortCircuitedCount = host.circuitBreaker != null ? host.circuitBreaker.getShortCircuitedCount() : 0;
+            stats.add(new HostConcurrencyStats(entry.getKey(), getLimit(host), host.inFlightCount, host.waitingRequests.size(), host.rejectedCount,
+                    circuitState, shortCircuitedCount));
+        }
+        return stats;
+    }
+
+    @Override
+    public void onRequestFinished(Request<Object> request) {
+        long endNanos = System.nanoTime();
+        List<Request<?>> nextRequests = null;
+        synchronized (this) {
+            InFlightRequest inFlightRequest = inFlightRequests.remove(request);
+            if (inFlightRequest == null) {
+                return;
+            }
+
+            Host host = hosts.get(getHostKey(request.getUrl()));
+            boolean isOverloaded = request instanceof JsonBodyRequestBase && ((JsonBodyRequestBase<?>) request).isOverloadSignalled();
+            long rttNanos = getRoundTripNanos(request, inFlightRequest.startNanos, endNanos);
+            // A request cancelled by the caller or that never reached the network says nothing about the host.
+            if (rttNanos >= 0 && (isOverloaded || !request.isCanceled())) {
+                if (host.adaptiveLimit != null) {
+                    host.adaptiveLimit.onRequestFinished(rttNanos, host.inFlightCount, isOverloaded);
+                }
+                if (host.circuitBreaker != null) {
+                    host.circuitBreaker.onRequestFinished(inFlightRequest.permission, rttNanos, isOverloaded, endNanos);
+                }
+            }
+            else if (host.circuitBreaker != null) {
+                host.circuitBreaker.onRequestIgnored(inFlightRequest.permission);
+            }
+            host.inFlightCount--;
+
+            int limit = getLimit(host);
+            while (host.inFlightCount < limit && !host.waitingRequests.isEmpty()) {
+                WaitingRequest waitingRequest = host.waitingRequests.poll();
+                if (waitingRequest.request.isCanceled()) {
+                    if (host.circuitBreaker != null) {
+                        host.circuitBreaker.onRequestIgnored(waitingRequest.permission);
+                    }
+                    continue;
+                }
+                if (nextRequests == null) {
+                    nextRequests = new ArrayList<>();
+                }
+                nextRequests.add(waitingRequest.request);
+                host.inFlightCount++;
+                inFlightRequests.put(waitingRequest.request, new InFlightRequest(endNanos, waitingRequest.permission));
+            }
+        }
+
+        if (nextRequests != null) {
+            for (Request<?> nextRequest : nextRequests) {
+                requestQueue.add(nextRequest);
+            }
+        }
+    }
+
+    private boolean isTracking() {
+        return maxRequestsPerHost > 0 || adaptive || circuitBreakerOptions != null;
+    }
+
+    /**
+     * Gets the round trip time of a request from when a network dispatcher took it,
+     * because the time it waited in the request queue behind other hosts says nothing about its own host.
+     * @return round trip time or -1 if the request never reached a network dispatcher
+     */
+    private static long getRoundTripNanos(Request<?> request, long startNanos, long endNanos) {
+        if (!(request instanceof JsonBodyRequestBase)) {
+            return endNanos - startNanos;
+        }
+        long networkStartNanos = ((JsonBodyRequestBase<?>) request).getNetworkStartNanos();
+        return networkStartNanos != 0 ? endNanos - networkStartNanos : -1;
+    }
+
+    private int getLimit(Host host) {
+        if (adaptive && host.adaptiveLimit == null) {
+            int maxLimit = maxRequestsPerHost > 0 ? maxRequestsPerHost : DEFAULT_ADAPTIVE_MAX_LIMIT;
+            host.adaptiveLimit = new AdaptiveConcurrencyLimit(ADAPTIVE_INITIAL_LIMIT, maxLimit);
+        }
+        if (host.adaptiveLimit != null) {
+            return host.adaptiveLimit.getLimit();
+        }
+        return maxRequestsPerHost > 0 ? maxRequestsPerHost : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the authority of a URL, which is the host and port the request connects to.
+     */
+    private static String getHostKey(String url) {
+        int authorityStart = url.indexOf("://");
+        authorityStart = authorityStart >= 0 ? authorityStart + 3 : 0;
+        int authorityEnd = url.indexOf('/', authorityStart);
+        if (authorityEnd < 0) {
+            authorityEnd = url.indexOf('?', authorityStart);
+        }
+        return authorityEnd >= 0 ? url.substring(authorityStart, authorityEnd) : url.substring(authorityStart);
+    }
+
+    private static final class Host {
+        private int inFlightCount;
+        private long rejectedCount;
+        private AdaptiveConcurrencyLimit adaptiveLimit;
+        private CircuitBreaker circuitBreaker;
+        private final PriorityQueue<WaitingRequest> waitingRequests = new PriorityQueue<>(11, WAITING_REQUEST_COMPARATOR);
+    }
+
+    private static final class WaitingRequest {
+        private final Request<?> request;
+        private final long permission;
+        private final long sequence;
+
+        private WaitingRequest(Request<?> request, long permission, long sequence) {
+            this.request = request;
+            this.permission = permission;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class InFlightRequest {
+        private final long startNanos;
+        private final long permission;
+
+        private InFlightRequest(long startNanos, long permission) {
+            this.startNanos = startNanos;
+            this.permission = permission;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package stannieman.rest;
+
+import com.android.volley.Cache;
+import com.android.volley.Header;
+import com.android.volley.NetworkResponse;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes responses in the cache of a request queue for requests with a cache policy.
+ * Requests are added to the queue with caching disabled, so the cache dispatcher of Volley does not handle them
+ * and the cache policy of every request decides how the cache is used.
+ * Since only GET requests are cached, the cache key is the URL, which is also the cache key Volley uses.
+ */
+final class ResponseCache {
+    private final Cache cache;
+
+    ResponseCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets a cached response.
+     * This reads from disk for a disk based cache, so it should not be called on the main thread.
+     * @param url URL of the request
+     * @return cache entry or null if there is none
+     */
+    Cache.Entry get(String url) {
+        return cache != null ? cache.get(url) : null;
+    }
+
+    /**
+     * Stores a network response in the cache, unless its cache headers forbid it.
+     * A 304 Not Modified response that was merged with the cached response by the network is stored and returned as
+     * a 200 OK response, so the expiration of the cached response is updated and it is converted like any other response.
+     * @param url URL of the request
+     * @param response network response
+     * @return the response to convert
+     */
+    NetworkResponse put(String url, NetworkResponse response) {
+        NetworkResponse responseToStore = response;
+        if (response.notModified && response.data != null) {
+            responseToStore = new NetworkResponse(HttpURLConnection.HTTP_OK, response.data, true, response.networkTimeMs, response.allHeaders);
+        }
+
+        if (cache != null && responseToStore.statusCode == HttpURLConnection.HTTP_OK) {
+            Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(responseToStore);
+            if (entry != null) {
+                cache.put(url, entry);
+            }
+        }
+        return responseToStore;
+    }
+
+    /**
+     * Creates a 200 OK network response from a cached response with all its headers, including repeated ones.
+     * @param entry cache entry
+     * @return network response
+     */
+    static NetworkResponse toNetworkResponse(Cache.Entry entry) {
+        List<Header> allHeaders = entry.allResponseHeaders;
+        if (allHeaders == null && entry.responseHeaders != null) {
+            // Entries stored by an older version of Volley only have the last value of each header.
+            allHeaders = new ArrayList<>(entry.responseHeaders.size());
+            for (Map.Entry<String, String> header : entry.responseHeaders.entrySet()) {
+                allHeaders.add(new Header(header.getKey(), header.getValue()));
+            }
+        }
+        return new NetworkResponse(HttpURLConnection.HTTP_OK, entry.data, false, 0, allHeaders);
+    }
+}
@@ -1,266 +1,635 @@
 package stannieman.rest;
 
+import com.android.volley.Cache;
+import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkResponse;
-import com.android.volley.RequestQueue;
+import com.android.volley.Request;
+import com.android.volley.Response;
 import com.android.volley.RetryPolicy;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.RequestFuture;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.IOException;
-import java.net.URI;
 import java.util.AbstractMap;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import stannieman.commonservices.helpers.ResultCodeHelper;
 import stannieman.commonservices.models.DataServiceResult;
 import stannieman.commonservices.models.GeneralResultCodes;
 import stannieman.commonservices.models.IHasDataAndSuccessState;
-import stannieman.commonservices.models.ServiceResult;
-import stannieman.rest.helpers.ArrayHelper;
-import stannieman.rest.helpers.QueryParamsHelper;
+import stannieman.rest.helpers.CompressionHelper;
+import stannieman.rest.models.CachePolicy;
 import stannieman.rest.models.ErrorResponseDataBase;
-import stannieman.rest.models.RequestProperties;
+import stannieman.rest.models.HedgingOptions;
+import stannieman.rest.models.ResponseSource;
 import stannieman.rest.models.RestResult;
 
-import static stannieman.rest.RestClientResultCodes.CANNOT_CREATE_URI;
+/**
+ * Base of the REST clients that perform their requests with Volley.
+ * It applies the cache policy, hedging and the limits of the request scheduler to every request.
+ */
+abstract class RestClientBase extends CoreRestClientBase {
+    // The same number of threads as the network dispatchers of a default request queue.
+    private static final int BACKGROUND_THREAD_POOL_SIZE = 4;
+    private static final long BACKGROUND_THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final Object BACKGROUND_EXECUTOR_LOCK = new Object();
+    private static ThreadPoolExecutor backgroundExecutor;
 
-abstract class RestClientBase implements IRestClient {
-    private static final String ENCODING = "UTF-8";
-    private static final int DEFAULT_SUCCESS_STATUS_CODES_MIN = 200;
-    private static final int DEFAULT_SUCCESS_STATUS_CODES_MAX = 299;
+    private final RequestScheduler requestScheduler;
+    private final ResponseCache responseCache;
 
-    private static final Map<String, String> REQUEST_DEFAULT_HEADERS;
-    static {
-        Map<String, String> requestDefaultHeaders = new HashMap<>();
-        requestDefaultHeaders.put("Accept-Type", "application/json; charset=" + ENCODING);
-        REQUEST_DEFAULT_HEADERS = Collections.unmodifiableMap(requestDefaultHeaders);
-    }
-
-    private final ObjectMapper objectMapper;
-    private final RequestQueue requestQueue;
-
-    private final String scheme;
-    private final String host;
-    private final int port;
-    private final String absoluteEndpointPath;
-    private final long timeout;
     private final RetryPolicy retryPolicy;
-
-    protected RestClientBase(ObjectMapper objectMapper, RequestQueue requestQueue, Scheme scheme, String host, int port, String apiBasePath, String endpointPath, long timeout, RetryPolicy retryPolicy) {
-        this.objectMapper = objectMapper;
-        this.requestQueue = requestQueue;
-
-        this.scheme = scheme.name().toLowerCase(Locale.US);
-        this.host = stripSlashes(host);
-        this.port = port;
-        this.absoluteEndpointPath = getAbsoluteEndpointPath(apiBasePath, endpointPath);
-        this.timeout = timeout;
-        this.retryPolicy = retryPolicy;
+    private final HedgeBudget hedgeBudget;
+    private final Set<PreparingRequest> preparingRequests = new HashSet<>();
+    private final ConcurrentMap<String, LatencyTracker> hedgeLatencyTrackers = new ConcurrentHashMap<>();
+
+    protected RestClientBase(JsonCodecCache jsonCodecCache, RequestScheduler requestScheduler, Scheme scheme, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, HedgeBudget hedgeBudget, IRequestEventListener requestEventListener, RequestMetrics requestMetrics) {
+        super(jsonCodecCache, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, requestEventListener, requestMetrics);
+        this.requestScheduler = requestScheduler;
+        this.responseCache = new ResponseCache(requestScheduler.getRequestQueue().getCache());
+
+        // Volley retries immediately and only on timeouts and some status codes, so retries are done by the retrying network instead.
+        // The policy gives the socket the timeout of the client, so a stalled request does not hold a network thread longer than that.
+        this.retryPolicy = new DefaultRetryPolicy((int) Math.min(timeout, Integer.MAX_VALUE), 0, 0);
+        this.hedgeBudget = hedgeBudget;
     }
 
-    protected <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doRequest(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, List<AbstractMap.SimpleEntry<String, String>> queryParameters, Map<String, String> headers) {
-        IHasDataAndSuccessState<String> uriResult = getUriString(requestProperties.getSubPath(), requestProperties.getSubPathParameters(), queryParameters);
-        if (!uriResult.isSuccess()) {
-            RestClientResultCodes resultCode = ResultCodeHelper.GetResultCodeOrNull(uriResult, RestClientResultCodes.class);
-            return resultCode != null
-                    ? new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(resultCode)
-                    : new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.CANNOT_CREATE_URI);
+    @Override
+    public void cancelAll(Object tag) {
+        // Requests that are being prepared in the background are added to the queue afterwards and cancelled then.
+        if (tag != null) {
+            synchronized (preparingRequests) {
+                for (PreparingRequest preparingRequest : preparingRequests) {
+                    if (preparingRequest.tag == tag) {
+                        preparingRequest.isCancelled = true;
+                    }
+                }
+            }
         }
-        String uriString = uriResult.getData();
+        requestScheduler.cancelAll(tag);
+    }
+
+    @Override
+    boolean isHedgingAvailable() {
+        return hedgeBudget != null;
+    }
 
-        IHasDataAndSuccessState<String> bodyStringResult = getBodyString(requestProperties.getBody());
-        if (!bodyStringResult.isSuccess()) {
-            RestClientResultCodes resultCode = ResultCodeHelper.GetResultCodeOrNull(uriResult, RestClientResultCodes.class);
-            return resultCode != null
-                    ? new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(resultCode)
-                    : new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.CANNOT_CREATE_JSON_STRING_FROM_OBJECT);
+    /**
+     * Gets the result of a request, from the response cache or from the network depending on its cache policy.
+     */
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> executeNetworkRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, byte[] serializedBody, Object tag, RequestEvent requestEvent) {
+        boolean compressBody = compiledRequest.shouldCompressBody(serializedBody);
+        Map<String, String> headers = compressBody ? compiledRequest.getCompressedBodyHeaders() : compiledRequest.getHeaders();
+
+        CachePolicy cachePolicy = compiledRequest.getCachePolicy();
+        Cache.Entry cacheEntry = null;
+        if (cachePolicy != CachePolicy.NO_CACHE) {
+            cacheEntry = responseCache.get(uriString);
+            if (cacheEntry != null && isCacheEntryUsable(cacheEntry, cachePolicy)) {
+                if (shouldRevalidateUsedCacheEntry(cacheEntry, cachePolicy)) {
+                    revalidateCacheEntry(JsonBodyRequestBase.getVolleyMethod(compiledRequest.getMethod()), uriString, headers, cacheEntry);
+                }
+                return convertNetworkResponse(compiledRequest, uriString, ResponseCache.toNetworkResponse(cacheEntry), ResponseSource.CACHE, requestEvent);
+            }
         }
-        String bodyString = bodyStringResult.getData();
 
-        IHasDataAndSuccessState<NetworkResponse> networkResponseResult = getNetworkResponse(method, uriString, headers, bodyString);
+        IHasDataAndSuccessState<NetworkResponse> networkResponseResult = getNetworkResponse(
+                compiledRequest,
+                uriString,
+                headers,
+                compressBody ? CompressionHelper.gzip(serializedBody) : serializedBody,
+                cachePolicy != CachePolicy.NO_CACHE ? responseCache : null,
+                cacheEntry,
+                tag,
+                requestEvent);
         if (!networkResponseResult.isSuccess()) {
-            RestClientResultCodes resultCode = ResultCodeHelper.GetResultCodeOrNull(uriResult, RestClientResultCodes.class);
-            return resultCode != null
-                    ? new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(resultCode)
-                    : new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.REQUEST_FAILED);
+            RestClientResultCodes resultCode = ResultCodeHelper.GetResultCodeOrNull(networkResponseResult, RestClientResultCodes.class);
+            if (cachePolicy == CachePolicy.NETWORK_FIRST && cacheEntry != null && resultCode != RestClientResultCodes.REQUEST_INTERRUPTED && resultCode != RestClientResultCodes.REQUEST_CANCELLED) {
+                return convertNetworkResponse(compiledRequest, uriString, ResponseCache.toNetworkResponse(cacheEntry), ResponseSource.CACHE, requestEvent);
+            }
+            return getFailureResult(networkResponseResult, RestClientResultCodes.REQUEST_FAILED);
         }
         NetworkResponse networkResponse = networkResponseResult.getData();
 
-        return createRestResultFromNetworkResponse(requestProperties.getSuccessResponseDataType(), requestProperties.getErrorResponseDataType(), networkResponse, requestProperties.getSuccessStatusCodes());
+        return convertNetworkResponse(compiledRequest, uriString, networkResponse, networkResponse.notModified ? ResponseSource.REVALIDATED : ResponseSource.NETWORK, requestEvent);
     }
 
-    private IHasDataAndSuccessState<String> getUriString(String subPath, String[] subPathParameters, List<AbstractMap.SimpleEntry<String, String>> queryParameters) {
-        String parametrizedSubPath = getParametrizedSubPath(subPath, subPathParameters);
-
-        try {
-            String uriString = new URI(scheme, null, host, port, absoluteEndpointPath + parametrizedSubPath, null, null).toString();
-            String queryString = QueryParamsHelper.getQueryString(queryParameters, ENCODING);
-            return new DataServiceResult<>(uriString + queryString, GeneralResultCodes.OK);
-        } catch (Exception e) {
-            return new DataServiceResult<>(CANNOT_CREATE_URI);
-        }
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> convertNetworkResponse(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, NetworkResponse networkResponse, ResponseSource responseSource, RequestEvent requestEvent) {
+        return convertResponse(compiledRequest, uriString, networkResponse.statusCode, networkResponse.headers, networkResponse.data, responseSource, requestEvent);
     }
 
-    private IHasDataAndSuccessState<String> getBodyString(Object body) {
-        if (body != null) {
-            try {
-                return new DataServiceResult<>(objectMapper.writeValueAsString(body), GeneralResultCodes.OK);
-            } catch (Exception e) {
-                return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_JSON_STRING_FROM_OBJECT);
+    /**
+     * Prepares the request on a background thread, so serializing and compressing its body does not block the caller.
+     */
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void executeRequestAsync(final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, final String[] subPathParameters, final List<AbstractMap.SimpleEntry<String, String>> queryParameters, final Object body, final Object tag, final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        prepareInBackground(tag, new Runnable() {
+            @Override
+            public void run() {
+                enqueueRequest(compiledRequest, subPathParameters, queryParameters, body, tag, requestResponseListener);
             }
-        }
-        return new DataServiceResult<>();
+        });
     }
 
-    private IHasDataAndSuccessState<NetworkResponse> getNetworkResponse(int method, String uriString, Map<String, String> headers, String bodyString) {
-        RequestFuture<NetworkResponse> future = RequestFuture.newFuture();
-        requestQueue.add(new NetworkResponseRequest(
-                method,
-                uriString,
-                getHeadersWithRequestDefaultHeaders(headers),
-                bodyString,
-                retryPolicy,
-                future,
-                future,
-                ENCODING));
+    /**
+     * Prepares the request on a background thread, so serializing and compressing its body does not block the caller.
+     */
+    @Override
+    <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> executeRequestFuture(final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, final String[] subPathParameters, final List<AbstractMap.SimpleEntry<String, String>> queryParameters, final Object body, final Object tag) {
+        final RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> future = new RestFuture<>();
+        final AtomicReference<Request<?>> requestReference = new AtomicReference<>();
+
+        prepareInBackground(tag, new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
 
-        NetworkResponse response;
-        try {
-            response = future.get(timeout, TimeUnit.MILLISECONDS);
-        }
-        catch (InterruptedException e) {
-            return new DataServiceResult<>(RestClientResultCodes.REQUEST_INTERRUPTED);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (!(cause instanceof VolleyError)) {
-                return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+                Request<?> request = enqueueRequest(compiledRequest, subPathParameters, queryParameters, body, tag, new IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType>() {
+                    @Override
+                    public void onRequestResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+                        future.complete(result);
+                    }
+                });
+                if (request != null) {
+                    requestReference.set(request);
+                    // The future can be cancelled while the request is prepared.
+                    if (future.isCancelled()) {
+                        request.cancel();
+                    }
+                }
             }
-            VolleyError error = (VolleyError) cause;
-            if (error.networkResponse == null) {
-                return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+        });
+
+        future.addListener(new IRestFutureListener<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>() {
+            @Override
+            public void onDone(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doneFuture) {
+                Request<?> request = requestReference.get();
+                if (doneFuture.isCancelled() && request != null) {
+                    request.cancel();
+                }
             }
-            response = error.networkResponse;
-        } catch (TimeoutException e) {
-            return new DataServiceResult<>(RestClientResultCodes.REQUEST_TIMED_OUT);
-        }
+        });
 
-        return new DataServiceResult<>(response, GeneralResultCodes.OK);
+        return future;
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> createRestResultFromNetworkResponse(Class<SuccessResponseDataType> successResponseDataType, Class<ErrorResponseDataType> errorResponseDataType, NetworkResponse networkResponse, Integer[] successStatusCodes) {
-        String jsonString = NetworkResponseRequest.parseToString(networkResponse);
+    /**
+     * Adds a request to the request queue that delivers its result to the given listener.
+     * This must be called on a background thread, because it serializes and compresses the body and reads the cache.
+     * A coalesced request is shared with identical requests, so it is not returned and cancelling the caller does not cancel it.
+     * @return the queued request or null if no request was needed or the request is coalesced,
+     * in which case a failure, a cached object or the result of the shared request is delivered to the listener
+     */
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> Request<?> enqueueRequest(final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, final String[] subPathParameters, final List<AbstractMap.SimpleEntry<String, String>> queryParameters, final Object body, final Object tag, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> unrecordedListener = requestResponseListener;
+        RequestEvent requestEvent = createRequestEventOrNull(compiledRequest);
+        if (requestEvent != null) {
+            requestResponseListener = getRequestEventFinishingListener(requestEvent, requestResponseListener);
+        }
+
+        IHasDataAndSuccessState<String> uriResult = getUriString(compiledRequest.getRouteTemplate(), compiledRequest.getSubPath(), subPathParameters, queryParameters);
+        if (!uriResult.isSuccess()) {
+            RestResultRequest.deliverWithoutRequest(requestResponseListener, this.<SuccessResponseDataType, ErrorResponseDataType>getFailureResult(uriResult, RestClientResultCodes.CANNOT_CREATE_URI));
+            return null;
+        }
+        String uriString = uriResult.getData();
+        if (requestEvent != null) {
+            requestEvent.onUriCreated(uriString);
+        }
 
-        if (isStatusCodeOk(networkResponse.statusCode, successStatusCodes)) {
-            if (successResponseDataType == null) {
-                return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(networkResponse.statusCode), GeneralResultCodes.OK);
+        if (compiledRequest.isResponseObjectCacheEnabled()) {
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> cachedResult = getResponseObjectCacheResultOrNull(compiledRequest, uriString);
+            if (cachedResult != null) {
+                RestResultRequest.deliverWithoutRequest(requestResponseListener, cachedResult);
+                return null;
             }
-            else {
-                try {
-                    SuccessResponseDataType successObject = objectMapper.readValue(jsonString, successResponseDataType);
-                    return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(networkResponse.statusCode, successObject), GeneralResultCodes.OK);
-                } catch (JsonMappingException e) {
-                    return new DataServiceResult<>(RestClientResultCodes.JSON_RESPONSE_DATA_TYPE_MISMATCH);
-                } catch (JsonParseException e) {
-                    return new DataServiceResult<>(RestClientResultCodes.RESPONSE_IS_NOT_VALID_JSON);
-                } catch (IOException e) {
-                    return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_OBJECT_FROM_SUCCESS_RESPONSE);
-                }
+        }
+
+        IHasDataAndSuccessState<byte[]> bodyResult = getBody(body);
+        if (!bodyResult.isSuccess()) {
+            RestResultRequest.deliverWithoutRequest(requestResponseListener, this.<SuccessResponseDataType, ErrorResponseDataType>getFailureResult(bodyResult, RestClientResultCodes.CANNOT_CREATE_JSON_STRING_FROM_OBJECT));
+            return null;
+        }
+
+        byte[] serializedBody = bodyResult.getData();
+        if (requestEvent != null) {
+            requestEvent.onBodySerialized();
+        }
+        boolean compressBody = compiledRequest.shouldCompressBody(serializedBody);
+
+        if (compiledRequest.isCoalescingEnabled()) {
+            final RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> flight = new RestFuture<>();
+            RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> inFlightRequest = getRequestCoalescer().joinOrStart(uriString, compiledRequest, tag, flight);
+            final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> callerListener = requestResponseListener;
+            if (inFlightRequest != null) {
+                inFlightRequest.addListener(new IRestFutureListener<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>>() {
+                    @Override
+                    public void onDone(RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doneFuture) {
+                        if (doneFuture.isCancelled()) {
+                            // The caller that performed the request gave up, so this caller performs it itself.
+                            executeRequestAsync(compiledRequest, subPathParameters, queryParameters, body, tag, unrecordedListener);
+                            return;
+                        }
+                        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = doneFuture.getNow(null);
+                        RestResultRequest.deliverWithoutRequest(callerListener, result != null ? result : new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.REQUEST_FAILED));
+                    }
+                });
+                return null;
             }
+
+            requestResponseListener = new IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType>() {
+                @Override
+                public void onRequestResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+                    flight.complete(result);
+                    callerListener.onRequestResponse(result);
+                }
+            };
         }
 
-        if (errorResponseDataType == null) {
-            return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(false, networkResponse.statusCode));
+        final Map<String, String> headers = compressBody ? compiledRequest.getCompressedBodyHeaders() : compiledRequest.getHeaders();
+        final byte[] requestBody = compressBody ? CompressionHelper.gzip(serializedBody) : serializedBody;
+        LatencyTracker hedgeLatencyTracker = compiledRequest.getHedgingOptions() != null ? getHedgeLatencyTracker(compiledRequest) : null;
+        HedgedRequest<SuccessResponseDataType, ErrorResponseDataType> hedgedRequest = hedgeLatencyTracker != null ? new HedgedRequest<>(requestResponseListener, hedgeLatencyTracker) : null;
+
+        final RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> request = createRestResultRequest(compiledRequest, uriString, headers, requestBody, tag, hedgedRequest != null ? hedgedRequest.getPrimaryListener() : requestResponseListener);
+        request.startTimeout(getTimeout());
+        if (requestEvent != null) {
+            request.setRequestEvent(requestEvent);
+        }
+        if (compiledRequest.getCachePolicy() == CachePolicy.NO_CACHE) {
+            addOrReject(request);
         }
         else {
-            try {
-                ErrorResponseDataType errorObject = objectMapper.readValue(jsonString, errorResponseDataType);
-                return new DataServiceResult<>(new RestResult<SuccessResponseDataType, ErrorResponseDataType>(networkResponse.statusCode, errorObject), GeneralResultCodes.OK);
-            } catch (JsonMappingException e) {
-                return new DataServiceResult<>(RestClientResultCodes.JSON_ERROR_DATA_TYPE_MISMATCH);
-            } catch (JsonParseException e) {
-                return new DataServiceResult<>(RestClientResultCodes.RESPONSE_IS_NOT_VALID_JSON);
-            } catch (IOException e) {
-                return new DataServiceResult<>(RestClientResultCodes.CANNOT_CREATE_OBJECT_FROM_ERROR_RESPONSE);
-            }
+            enqueueWithCachePolicy(request, compiledRequest.getCachePolicy());
         }
+
+        if (hedgedRequest != null) {
+            final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> hedgedCompiledRequest = compiledRequest;
+            final String hedgedUriString = uriString;
+            final Object hedgedTag = tag;
+            hedgedRequest.start(request, getHedgeDelay(compiledRequest.getHedgingOptions(), hedgeLatencyTracker), getTimeout(), hedgeBudget, new HedgedRequest.HedgeStarter<SuccessResponseDataType, ErrorResponseDataType>() {
+                @Override
+                public RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> start(IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> hedgeListener, long remainingTimeout) {
+                    RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> hedgeRequest = createRestResultRequest(hedgedCompiledRequest, hedgedUriString, headers, requestBody, hedgedTag, hedgeListener);
+                    // The primary request already looked up the cache entry, which provides the validators for a conditional request.
+                    hedgeRequest.setCacheEntry(request.getCacheEntry());
+                    hedgeRequest.startTimeout(remainingTimeout);
+                    addOrReject(hedgeRequest);
+                    return hedgeRequest;
+                }
+            });
+        }
+        return compiledRequest.isCoalescingEnabled() ? null : request;
     }
 
-    private boolean isStatusCodeOk(int statusCode, Integer[] successStatusCodes) {
-        if (successStatusCodes == null) {
-            return statusCode >= DEFAULT_SUCCESS_STATUS_CODES_MIN && statusCode <= DEFAULT_SUCCESS_STATUS_CODES_MAX;
+    /**
+     * Wraps a listener so the request event is finished before the result is handed to the caller.
+     */
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> getRequestEventFinishingListener(final RequestEvent requestEvent, final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        return new IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType>() {
+            @Override
+            public void onRequestResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+                finishRequestEvent(requestEvent, result);
+                requestResponseListener.onRequestResponse(result);
+            }
+        };
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> createRestResultRequest(CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, String uriString, Map<String, String> headers, byte[] body, Object tag, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        RestResultRequest<SuccessResponseDataType, ErrorResponseDataType> request = new RestResultRequest<>(
+                JsonBodyRequestBase.getVolleyMethod(compiledRequest.getMethod()),
+                uriString,
+                headers,
+                body,
+                retryPolicy,
+                responseCache,
+                compiledRequest.getCachePolicy(),
+                getNetworkResponseConverter(compiledRequest, uriString),
+                requestResponseListener);
+        request.setTag(tag);
+        request.setPriority(compiledRequest.getPriority());
+        request.setRetryOptions(compiledRequest.getRetryOptions());
+        return request;
+    }
+
+    /**
+     * Gets the latencies of the hedged requests to the endpoint of a request.
+     * Endpoints are tracked separately, because a slow endpoint would make a fast one hedge too late and the other way around.
+     */
+    private LatencyTracker getHedgeLatencyTracker(CompiledRequest<?, ?> compiledRequest) {
+        String endpoint = compiledRequest.getEndpoint();
+        LatencyTracker latencyTracker = hedgeLatencyTrackers.get(endpoint);
+        if (latencyTracker == null) {
+            LatencyTracker newLatencyTracker = new LatencyTracker();
+            latencyTracker = hedgeLatencyTrackers.putIfAbsent(endpoint, newLatencyTracker);
+            if (latencyTracker == null) {
+                latencyTracker = newLatencyTracker;
+            }
         }
+        return latencyTracker;
+    }
 
-        return ArrayHelper.Contains(successStatusCodes, statusCode);
+    /**
+     * Gets the time to wait for a response before a hedged request sends a duplicate.
+     */
+    private long getHedgeDelay(HedgingOptions hedgingOptions, LatencyTracker hedgeLatencyTracker) {
+        if (hedgingOptions.getDelay() > 0) {
+            return Math.max(hedgingOptions.getDelay(), hedgingOptions.getMinDelay());
+        }
+        return Math.max(hedgeLatencyTracker.getPercentile(hedgingOptions.getDelayPercentile(), hedgingOptions.getMinDelay()), hedgingOptions.getMinDelay());
     }
-    
-    private String stripSlashes(String string) {
-        int startIndex = 0;
-        int endIndex = 0;
-
-        char[] chars = string.toCharArray();
-        for (int i = 0; i < chars.length; i++) {
-            if (chars[i] != '/') {
-                startIndex = i;
-                break;
+
+    /**
+     * Looks up the cached response of a request, which must be done on a background thread, and depending on the cache policy
+     * delivers it, adds the request to the queue to revalidate it, or both.
+     */
+    private void enqueueWithCachePolicy(RestResultRequest<?, ?> request, CachePolicy cachePolicy) {
+        Cache.Entry cacheEntry = responseCache.get(request.getCacheKey());
+        if (cacheEntry != null) {
+            // The entry provides the validators for a conditional request and the body for a 304 response.
+            request.setCacheEntry(cacheEntry);
+            if (isCacheEntryUsable(cacheEntry, cachePolicy)) {
+                request.deliverCacheEntry(cacheEntry);
+                if (!shouldRevalidateUsedCacheEntry(cacheEntry, cachePolicy)) {
+                    return;
+                }
             }
         }
-        for (int i = chars.length - 1; i >= 0; i--) {
-            if (chars[i] != '/') {
-                endIndex = i + 1;
-                break;
+        addOrReject(request);
+    }
+
+    /**
+     * Prepares an asynchronous request in the background, which adds it to the queue at the end.
+     * If cancelAll is called for its tag during the preparation, the request is cancelled once it is in the queue.
+     */
+    private void prepareInBackground(final Object tag, final Runnable preparation) {
+        final PreparingRequest preparingRequest = new PreparingRequest(tag);
+        synchronized (preparingRequests) {
+            preparingRequests.add(preparingRequest);
+        }
+
+        executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    preparation.run();
+                }
+                finally {
+                    boolean isCancelled;
+                    synchronized (preparingRequests) {
+                        preparingRequests.remove(preparingRequest);
+                        isCancelled = preparingRequest.isCancelled;
+                    }
+                    if (isCancelled) {
+                        requestScheduler.cancelAll(tag);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a task on a background threads that prepare asynchronous requests and read the cache for them.
+     * Requests are prepared in parallel, so a large body or a slow cache read does not hold up the requests after it.
+     */
+    private static void executeInBackground(Runnable task) {
+        synchronized (BACKGROUND_EXECUTOR_LOCK) {
+            if (backgroundExecutor == null) {
+                backgroundExecutor = new ThreadPoolExecutor(BACKGROUND_THREAD_POOL_SIZE, BACKGROUND_THREAD_POOL_SIZE, BACKGROUND_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "RestClient-background-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                // Threads stop when there is nothing to prepare for a while.
+                backgroundExecutor.allowCoreThreadTimeOut(true);
             }
         }
+        backgroundExecutor.execute(task);
+    }
 
-        return string.substring(startIndex, endIndex);
+    /**
+     * Adds a request to the scheduler, or delivers the reason it was not added.
+     */
+    private void addOrReject(RestResultRequest<?, ?> request) {
+        RestClientResultCodes rejectionResultCode = requestScheduler.add(request);
+        if (rejectionResultCode != null) {
+            request.reject(rejectionResultCode);
+        }
     }
 
-    private Map<String, String> getHeadersWithRequestDefaultHeaders(Map<String, String> headers) {
-        Map<String, String> headersWithRequestDefaultHeaders = new HashMap<>(REQUEST_DEFAULT_HEADERS);
+    /**
+     * Adds a conditional request to the queue that only updates the cached response.
+     */
+    private void revalidateCacheEntry(int method, String uriString, Map<String, String> headers, Cache.Entry cacheEntry) {
+        NetworkResponseRequest request = new NetworkResponseRequest(method, uriString, headers, null, retryPolicy, responseCache, null, null);
+        request.setCacheEntry(cacheEntry);
+        // Nobody waits for the result, so the revalidation must not hold up other requests.
+        request.setPriority(RequestPriority.LOW);
+        requestScheduler.add(request);
+    }
 
-        if (headers != null) {
-            headersWithRequestDefaultHeaders.putAll(headers);
+    /**
+     * Checks whether a cached response can be used without waiting for a network call.
+     */
+    private static boolean isCacheEntryUsable(Cache.Entry cacheEntry, CachePolicy cachePolicy) {
+        switch (cachePolicy) {
+            case HTTP:
+                return !cacheEntry.isExpired();
+            case CACHE_FIRST:
+            case STALE_WHILE_REVALIDATE:
+                return true;
+            default:
+                return false;
         }
+    }
 
-        return headersWithRequestDefaultHeaders;
+    /**
+     * Checks whether a cached response that was used should be revalidated in the background.
+     */
+    private static boolean shouldRevalidateUsedCacheEntry(Cache.Entry cacheEntry, CachePolicy cachePolicy) {
+        return (cachePolicy == CachePolicy.HTTP || cachePolicy == CachePolicy.STALE_WHILE_REVALIDATE) && cacheEntry.refreshNeeded();
     }
 
-    private String getAbsoluteEndpointPath(String apiBasePath, String endpointPath) {
-        return appendPathIfNeeded(appendPathIfNeeded("", apiBasePath), endpointPath);
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestResultRequest.NetworkResponseConverter<SuccessResponseDataType, ErrorResponseDataType> getNetworkResponseConverter(final CompiledRequest<SuccessResponseDataType, ErrorResponseDataType> compiledRequest, final String uriString) {
+        return new RestResultRequest.NetworkResponseConverter<SuccessResponseDataType, ErrorResponseDataType>() {
+            @Override
+            public IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> convert(NetworkResponse networkResponse, ResponseSource responseSource) {
+                return createRestResult(compiledRequest, uriString, networkResponse.statusCode, networkResponse.headers, networkResponse.data, responseSource);
+            }
+        };
     }
 
-    private String getParametrizedSubPath(String subPath, String[] subPathParameters) {
-        if (subPath == null) {
-            return "";
+    /**
+     * Performs a request and waits for its response.
+     * A hedged request sends a duplicate after the hedge delay. Only a successful response of the duplicate is used,
+     * so a failure of the duplicate does not hide the response of the first request,
+     * unless the first request failed without a response, in which case the result of the duplicate is awaited.
+     * @param responseCache cache to store the response in, or null if it must not be cached
+     * @param cacheEntry cached response to do a conditional request for, or null
+     * @param requestEvent event to record the network phase in, or null
+     */
+    private IHasDataAndSuccessState<NetworkResponse> getNetworkResponse(CompiledRequest<?, ?> compiledRequest, String uriString, Map<String, String> headers, byte[] body, ResponseCache responseCache, Cache.Entry cacheEntry, Object tag, RequestEvent requestEvent) {
+        RequestFuture<NetworkResponse> future = RequestFuture.newFuture();
+        NetworkResponseRequest request = createNetworkResponseRequest(compiledRequest, uriString, headers, body, responseCache, cacheEntry, tag, future, future);
+        if (requestEvent != null) {
+            request.setRequestEvent(requestEvent);
         }
-        String parametrizedSubPath = stripSlashes(subPath);
-        if (parametrizedSubPath.equals("")) {
-            return "";
+        RestClientResultCodes rejectionResultCode = requestScheduler.add(request);
+        if (rejectionResultCode != null) {
+            return new DataServiceResult<>(rejectionResultCode);
         }
-        parametrizedSubPath = "/" + parametrizedSubPath;
 
-        if (subPathParameters == null) {
-            return parametrizedSubPath;
+        NetworkResponseRequest hedgeRequest = null;
+        RequestFuture<NetworkResponse> hedgeFuture = null;
+        long startNanos = System.nanoTime();
+        NetworkResponse response;
+        try {
+            HedgingOptions hedgingOptions = compiledRequest.getHedgingOptions();
+            if (hedgingOptions == null) {
+                response = future.get(getTimeout(), TimeUnit.MILLISECONDS);
+            }
+            else {
+                hedgeBudget.onRequest();
+                LatencyTracker hedgeLatencyTracker = getHedgeLatencyTracker(compiledRequest);
+                long hedgeDelay = Math.min(getHedgeDelay(hedgingOptions, hedgeLatencyTracker), getTimeout());
+                try {
+                    response = future.get(hedgeDelay, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (hedgeBudget.tryHedge()) {
+                        hedgeFuture = RequestFuture.newFuture();
+                        hedgeRequest = createNetworkResponseRequest(compiledRequest, uriString, headers, body, responseCache, cacheEntry, tag, getHedgeResponseListener(future, hedgeFuture), hedgeFuture);
+                        if (requestScheduler.add(hedgeRequest) != null) {
+                            hedgeRequest = null;
+                            hedgeFuture = null;
+                        }
+                    }
+                    response = future.get(getTimeout() - hedgeDelay, TimeUnit.MILLISECONDS);
+                }
+                hedgeLatencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+        catch (InterruptedException e) {
+            request.cancel();
+            cancelIfNotNull(hedgeRequest);
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_INTERRUPTED);
+        } catch (ExecutionException e) {
+            if (request.isCanceled()) {
+                cancelIfNotNull(hedgeRequest);
+                return new DataServiceResult<>(RestClientResultCodes.REQUEST_CANCELLED);
+            }
+            response = getErrorNetworkResponse(e);
+            if (response == null && hedgeFuture != null) {
+                // The duplicate may get a response where the connection of the first request was reset or dropped.
+                long remainingTimeout = getTimeout() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                try {
+                    response = hedgeFuture.get(Math.max(remainingTimeout, 0), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException hedgeException) {
+                    hedgeRequest.cancel();
+                    return new DataServiceResult<>(RestClientResultCodes.REQUEST_INTERRUPTED);
+                } catch (ExecutionException hedgeException) {
+                    response = getErrorNetworkResponse(hedgeException);
+                } catch (TimeoutException hedgeException) {
+                    hedgeRequest.cancel();
+                }
+            }
+            else {
+                cancelIfNotNull(hedgeRequest);
+            }
+            if (response == null) {
+                return new DataServiceResult<>(RestClientResultCodes.REQUEST_FAILED);
+            }
+        } catch (TimeoutException e) {
+            // Cancelling frees the network dispatcher thread and the connection if the request is still in flight.
+            request.signalOverload();
+            request.cancel();
+            cancelIfNotNull(hedgeRequest);
+            return new DataServiceResult<>(RestClientResultCodes.REQUEST_TIMED_OUT);
+        }
+
+        // The losing request is cancelled, cancelling the request that delivered the response does nothing.
+        if (hedgeRequest != null) {
+            request.cancel();
+            hedgeRequest.cancel();
         }
+        return new DataServiceResult<>(response, GeneralResultCodes.OK);
+    }
 
-        return String.format(parametrizedSubPath, (Object[])subPathParameters);
+    private NetworkResponseRequest createNetworkResponseRequest(CompiledRequest<?, ?> compiledRequest, String uriString, Map<String, String> headers, byte[] body, ResponseCache responseCache, Cache.Entry cacheEntry, Object tag, Response.Listener<NetworkResponse> responseListener, Response.ErrorListener errorListener) {
+        NetworkResponseRequest request = new NetworkResponseRequest(
+                JsonBodyRequestBase.getVolleyMethod(compiledRequest.getMethod()),
+                uriString,
+                headers,
+                body,
+                retryPolicy,
+                responseCache,
+                responseListener,
+                errorListener);
+        request.setCacheEntry(cacheEntry);
+        request.setTag(tag);
+        request.setPriority(compiledRequest.getPriority());
+        request.setRetryOptions(compiledRequest.getRetryOptions());
+        return request;
     }
 
-    private String appendPathIfNeeded(String destination, String path) {
-        if (path != null) {
-            String strippedPath = stripSlashes(path);
-            destination += "/" + strippedPath;
+    /**
+     * Gets the response of a request that failed with a status code that is not successful.
+     * @return network response or null if the request failed without a response
+     */
+    private static NetworkResponse getErrorNetworkResponse(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof VolleyError ? ((VolleyError) cause).networkResponse : null;
+    }
+
+    /**
+     * Gets the listener of the duplicate of a hedged request, which completes the future of the first request
+     * so the first successful response is used, and the future of the duplicate in case the first request fails without a response.
+     */
+    private static Response.Listener<NetworkResponse> getHedgeResponseListener(final RequestFuture<NetworkResponse> future, final RequestFuture<NetworkResponse> hedgeFuture) {
+        return new Response.Listener<NetworkResponse>() {
+            @Override
+            public void onResponse(NetworkResponse response) {
+                future.onResponse(response);
+                hedgeFuture.onResponse(response);
+            }
+        };
+    }
+
+    private static void cancelIfNotNull(Request<?> request) {
+        if (request != null) {
+            request.cancel();
         }
+    }
+
+    /**
+     * An asynchronous request that is being prepared in the background.
+     */
+    private static final class PreparingRequest {
+        private final Object tag;
+        // Guarded by the set of preparing requests.
+        private boolean isCancelled;
 
-        return destination;
+        private PreparingRequest(Object tag) {
+            this.tag = tag;
+        }
     }
 }
@@ -2,57 +2,121 @@ package stannieman.rest;
 
 import android.content.Context;
 
-import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.RequestQueue;
-import com.android.volley.RetryPolicy;
-import com.android.volley.toolbox.Volley;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.android.volley.toolbox.BaseHttpStack;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.HurlStack;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.io.File;
 
 import stannieman.rest.models.ConfigBase;
 
-public abstract class RestClientFactoryBase implements IRestClientFactory {
-    protected Scheme scheme;
-    protected String host;
-    protected int port;
-    protected String apiBasePath;
-    protected long timeout;
-    protected ObjectMapper objectMapper;
-    protected RequestQueue requestQueue;
-    protected RetryPolicy retryPolicy;
+/**
+ * Base of the REST client factories that create clients which perform their requests with Volley.
+ */
+public abstract class RestClientFactoryBase extends CoreRestClientFactoryBase {
+    private static final String DEFAULT_CACHE_DIR = "volley";
+    private static final int DEFAULT_NETWORK_THREAD_POOL_SIZE = 4;
 
-    protected Lock configLock = new ReentrantLock();
+    protected RequestQueue requestQueue;
+    protected RequestScheduler requestScheduler;
+    protected HedgeBudget hedgeBudget;
 
     private final Context context;
+    private RetryingNetwork retryingNetwork;
 
     protected RestClientFactoryBase(Context context) {
         this.context = context;
     }
 
     protected void loadConfig(ConfigBase config) {
-        scheme = config.getScheme();
-        host = config.getHost();
-        port = config.getPort();
-        apiBasePath = config.getApiBasePath();
-        timeout = config.getTimeout();
-        retryPolicy = new DefaultRetryPolicy(Integer.MAX_VALUE, 0, 0);
-
-        ObjectMapper newObjectMapper = config.getObjectMapper();
-        if (newObjectMapper != null) {
-            objectMapper = newObjectMapper;
+        super.loadConfig(config);
+
+        if (config.getHedgeBudgetRatio() <= 0) {
+            hedgeBudget = null;
         }
-        else if (objectMapper == null) {
-            objectMapper = new ObjectMapper();
+        else if (hedgeBudget == null || hedgeBudget.getRatio() != config.getHedgeBudgetRatio()) {
+            hedgeBudget = new HedgeBudget(config.getHedgeBudgetRatio());
         }
 
         RequestQueue newRequestQueue = config.getRequestQueue();
         if (newRequestQueue != null) {
             requestQueue = newRequestQueue;
+            retryingNetwork = null;
         }
         else if (requestQueue == null) {
-            requestQueue = Volley.newRequestQueue(context);
+            requestQueue = createRequestQueue(config);
+        }
+
+        if (retryingNetwork != null) {
+            retryingNetwork.setDefaultRetryOptions(config.getRetryOptions());
+            RetryBudget retryBudget = retryingNetwork.getRetryBudget();
+            if (retryBudget == null || !retryBudget.hasSettings(config.getRetryBudgetRatio(), config.getRetryBudgetMinRetriesPerSecond())) {
+                retryingNetwork.setRetryBudget(new RetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMinRetriesPerSecond()));
+            }
+        }
+
+        int maxRequestsPerHost = Math.max(config.getMaxRequestsPerHost(), 0);
+        int maxQueuedRequestsPerHost = Math.max(config.getMaxQueuedRequestsPerHost(), 0);
+        if (requestScheduler == null || !requestScheduler.hasSettings(requestQueue, maxRequestsPerHost, config.isAdaptiveConcurrencyLimitEnabled(), maxQueuedRequestsPerHost, config.getCircuitBreakerOptions())) {
+            requestScheduler = new RequestScheduler(requestQueue, maxRequestsPerHost, config.isAdaptiveConcurrencyLimitEnabled(), maxQueuedRequestsPerHost, config.getCircuitBreakerOptions());
+        }
+    }
+
+    /**
+     * Creates and starts a request queue the same way Volley.newRequestQueue does,
+     * but with the HTTP stack and number of network threads of the config and a network that retries requests.
+     */
+    private RequestQueue createRequestQueue(ConfigBase config) {
+        BaseHttpStack httpStack = config.getHttpStack();
+        if (httpStack == null) {
+            httpStack = new HurlStack();
         }
+        int networkThreadPoolSize = config.getNetworkThreadPoolSize() > 0 ? config.getNetworkThreadPoolSize() : DEFAULT_NETWORK_THREAD_POOL_SIZE;
+
+        retryingNetwork = new RetryingNetwork(new BasicNetwork(httpStack));
+        RequestQueue newRequestQueue = new RequestQueue(new DiskBasedCache(new File(context.getCacheDir(), DEFAULT_CACHE_DIR)), retryingNetwork, networkThreadPoolSize);
+        newRequestQueue.start();
+        return newRequestQueue;
+    }
+
+    /**
+     * Gets the scheduler that limits the requests in flight per host for the clients of this factory.
+     * Its host stats show the current concurrency limit, in flight count and queue depth of every host.
+     * @return request scheduler or null if no configuration was loaded yet
+     */
+    public RequestScheduler getRequestScheduler() {
+        configLock.lock();
+        RequestScheduler scheduler = requestScheduler;
+        configLock.unlock();
+
+        return scheduler;
+    }
+
+    /**
+     * Gets the budget that limits the retries of the clients of this factory.
+     * Its counts show how many retries were done and how many were denied.
+     * @return retry budget or null if no configuration was loaded yet or a request queue is specified in the config
+     */
+    public RetryBudget getRetryBudget() {
+        configLock.lock();
+        RetryBudget budget = retryingNetwork != null ? retryingNetwork.getRetryBudget() : null;
+        configLock.unlock();
+
+        return budget;
+    }
+
+    /**
+     * Gets the budget that limits the duplicate requests of hedged requests of the clients of this factory.
+     * Its counts show how many duplicates were sent and how many were denied.
+     * @return hedge budget or null if the config disables hedging
+     */
+    public HedgeBudget getHedgeBudget() {
+        configLock.lock();
+        HedgeBudget budget = hedgeBudget;
+        configLock.unlock();
+
+        return budget;
     }
 }
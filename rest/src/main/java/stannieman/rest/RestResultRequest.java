@@ -0,0 +1,214 @@
+package stannieman.rest;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Response;
+import com.android.volley.RetryPolicy;
+import com.android.volley.VolleyError;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import stannieman.commonservices.models.DataServiceResult;
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+import stannieman.rest.models.CachePolicy;
+import stannieman.rest.models.ErrorResponseDataBase;
+import stannieman.rest.models.ResponseSource;
+import stannieman.rest.models.RestResult;
+
+/**
+ * Request that converts its network response to a RestResult on the network dispatcher thread
+ * and hands the result to an IRequestResponseListener on delivery.
+ * No thread is blocked while the request is in flight.
+ */
+class RestResultRequest<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> extends JsonBodyRequestBase<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> {
+    private static final Handler MAIN_THREAD_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final CachePolicy cachePolicy;
+    private final NetworkResponseConverter<SuccessResponseDataType, ErrorResponseDataType> networkResponseConverter;
+    private final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener;
+    private final AtomicBoolean isFinished = new AtomicBoolean();
+    private final Runnable timeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (finish(new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.REQUEST_TIMED_OUT))) {
+                signalOverload();
+                cancel();
+            }
+        }
+    };
+
+    RestResultRequest(int method, String url, Map<String, String> headers, byte[] body, RetryPolicy retryPolicy, ResponseCache responseCache, CachePolicy cachePolicy, NetworkResponseConverter<SuccessResponseDataType, ErrorResponseDataType> networkResponseConverter, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        super(method, url, headers, body, retryPolicy, cachePolicy != CachePolicy.NO_CACHE ? responseCache : null, null);
+        this.cachePolicy = cachePolicy;
+        this.networkResponseConverter = networkResponseConverter;
+        this.requestResponseListener = requestResponseListener;
+    }
+
+    /**
+     * Finishes the request with a REQUEST_TIMED_OUT result and cancels it
+     * if no response was delivered within the given time.
+     * @param timeout timeout in milliseconds
+     */
+    void startTimeout(long timeout) {
+        MAIN_THREAD_HANDLER.postDelayed(timeoutRunnable, timeout);
+    }
+
+    /**
+     * Delivers a result on the main thread without the request ever being added to a queue.
+     * @param requestResponseListener listener to deliver the result to
+     * @param result result to deliver
+     */
+    static <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void deliverWithoutRequest(final IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener, final IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+        MAIN_THREAD_HANDLER.post(new Runnable() {
+            @Override
+            public void run() {
+                requestResponseListener.onRequestResponse(result);
+            }
+        });
+    }
+
+    /**
+     * Delivers a cached response as the result of the request.
+     * The request can still be added to a queue afterwards to revalidate the cached response,
+     * in which case the network response only updates the cache.
+     * @param entry cache entry
+     */
+    void deliverCacheEntry(Cache.Entry entry) {
+        final IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = convert(ResponseCache.toNetworkResponse(entry), ResponseSource.CACHE);
+        if (!isFinished.compareAndSet(false, true)) {
+            return;
+        }
+
+        MAIN_THREAD_HANDLER.removeCallbacks(timeoutRunnable);
+        MAIN_THREAD_HANDLER.post(new Runnable() {
+            @Override
+            public void run() {
+                requestResponseListener.onRequestResponse(result);
+            }
+        });
+    }
+
+    /**
+     * Cancels the request and delivers a REQUEST_CANCELLED result on the main thread if no result was delivered yet.
+     */
+    @Override
+    public void cancel() {
+        super.cancel();
+        deliverFailure(RestClientResultCodes.REQUEST_CANCELLED);
+    }
+
+    /**
+     * Delivers a failure result on the main thread for a request that was not added to a queue.
+     * A network first request delivers its cached response instead if it has one, like it does when the network fails.
+     * @param resultCode result code of the rejection
+     */
+    void reject(RestClientResultCodes resultCode) {
+        Cache.Entry cacheEntry = getCacheEntry();
+        if (cachePolicy == CachePolicy.NETWORK_FIRST && cacheEntry != null) {
+            deliverCacheEntry(cacheEntry);
+        }
+        else {
+            deliverFailure(resultCode);
+        }
+    }
+
+    private void deliverFailure(final RestClientResultCodes resultCode) {
+        MAIN_THREAD_HANDLER.removeCallbacks(timeoutRunnable);
+        if (isFinished.compareAndSet(false, true)) {
+            MAIN_THREAD_HANDLER.post(new Runnable() {
+                @Override
+                public void run() {
+                    requestResponseListener.onRequestResponse(new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(resultCode));
+                }
+            });
+        }
+    }
+
+    @Override
+    protected Response<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> parseNetworkResponse(NetworkResponse response) {
+        NetworkResponse networkResponse = updateResponseCache(response);
+        if (isFinished.get()) {
+            // The result was already delivered from the cache, the response only revalidated it.
+            return Response.success(null, null);
+        }
+
+        return Response.success(convert(networkResponse, response.notModified ? ResponseSource.REVALIDATED : ResponseSource.NETWORK), null);
+    }
+
+    @Override
+    protected VolleyError parseNetworkError(VolleyError volleyError) {
+        super.parseNetworkError(volleyError);
+        if (volleyError.networkResponse == null) {
+            Cache.Entry cacheEntry = getCacheEntry();
+            if (cachePolicy == CachePolicy.NETWORK_FIRST && cacheEntry != null) {
+                return new RestResultError(convert(ResponseCache.toNetworkResponse(cacheEntry), ResponseSource.CACHE));
+            }
+            return volleyError;
+        }
+        return new RestResultError(convert(volleyError.networkResponse, ResponseSource.NETWORK));
+    }
+
+    private IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> convert(NetworkResponse networkResponse, ResponseSource responseSource) {
+        RequestEvent requestEvent = getRequestEvent();
+        if (requestEvent == null) {
+            return networkResponseConverter.convert(networkResponse, responseSource);
+        }
+
+        requestEvent.onParseStart(networkResponse.data);
+        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = networkResponseConverter.convert(networkResponse, responseSource);
+        requestEvent.onParseEnd();
+        return result;
+    }
+
+    @Override
+    protected void deliverResponse(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+        finish(result);
+    }
+
+    @Override
+    public void deliverError(VolleyError error) {
+        if (error instanceof RestResultError) {
+            @SuppressWarnings("unchecked")
+            IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result = (IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>) ((RestResultError) error).result;
+            finish(result);
+        }
+        else {
+            finish(new DataServiceResult<RestResult<SuccessResponseDataType, ErrorResponseDataType>, RestClientResultCodes>(RestClientResultCodes.REQUEST_FAILED));
+        }
+    }
+
+    private boolean finish(IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> result) {
+        if (!isFinished.compareAndSet(false, true)) {
+            return false;
+        }
+
+        MAIN_THREAD_HANDLER.removeCallbacks(timeoutRunnable);
+        requestResponseListener.onRequestResponse(result);
+        return true;
+    }
+
+    /**
+     * Converts a network response to a RestResult.
+     */
+    interface NetworkResponseConverter<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> {
+        IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> convert(NetworkResponse networkResponse, ResponseSource responseSource);
+    }
+
+    /**
+     * Error that carries the RestResult of a response with an unsuccessful status code
+     * from the network dispatcher thread to delivery.
+     */
+    private static class RestResultError extends VolleyError {
+        private static final long serialVersionUID = 1L;
+
+        private final IHasDataAndSuccessState<?> result;
+
+        RestResultError(IHasDataAndSuccessState<?> result) {
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package stannieman.rest;
+
+/**
+ * Limits the retries of all clients of a factory to a fraction of their requests,
+ * so retries cannot multiply the load on a backend that is already failing.
+ * Every request adds the ratio to the balance and every retry takes 1 from it.
+ * On top of that a small number of retries per second is always allowed, so clients with little traffic can still retry.
+ * All methods are thread-safe.
+ */
+public final class RetryBudget {
+    private static final double MAX_BALANCE = 100;
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private double balance;
+    private double reserve;
+    private long lastReserveRefillNanos = System.nanoTime();
+    private long retryCount;
+    private long exhaustedCount;
+
+    /**
+     * @param ratio fraction of the requests that can be retried
+     * @param minRetriesPerSecond number of retries per second that are always allowed
+     */
+    RetryBudget(double ratio, int minRetriesPerSecond) {
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        reserve = minRetriesPerSecond;
+    }
+
+    boolean hasSettings(double ratio, int minRetriesPerSecond) {
+        return this.ratio == ratio && this.minRetriesPerSecond == minRetriesPerSecond;
+    }
+
+    synchronized void onRequest() {
+        balance = Math.min(MAX_BALANCE, balance + ratio);
+    }
+
+    /**
+     * Takes a retry from the budget.
+     * @return whether the retry is allowed
+     */
+    synchronized boolean tryRetry() {
+        long nowNanos = System.nanoTime();
+        reserve = Math.min(minRetriesPerSecond, reserve + (nowNanos - lastReserveRefillNanos) / 1e9 * minRetriesPerSecond);
+        lastReserveRefillNanos = nowNanos;
+
+        if (reserve >= 1) {
+            reserve--;
+        }
+        else if (balance >= 1) {
+            balance--;
+        }
+        else {
+            exhaustedCount++;
+            return false;
+        }
+        retryCount++;
+        return true;
+    }
+
+    /**
+     * Gets the number of retries that were done.
+     * @return number of retries
+     */
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Gets the number of retries that were not done because the budget was used up.
+     * @return number of denied retries
+     */
+    public synchronized long getExhaustedCount() {
+        return exhaustedCount;
+    }
+}
@@ -0,0 +1,146 @@
+package stannieman.rest;
+
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.util.Random;
+
+import stannieman.rest.models.RetryOptions;
+
+/**
+ * Network that retries failed requests with exponential backoff and jitter.
+ * Volley performs requests and their retries on a network dispatcher thread, so the backoff is slept on that thread
+ * like the retries of a Volley RetryPolicy. The retry budget and the concurrency limit of the request scheduler
+ * bound how many dispatcher threads can be busy retrying.
+ */
+final class RetryingNetwork implements Network {
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final Network network;
+    private volatile RetryBudget retryBudget;
+    private final Random random = new Random();
+    private volatile RetryOptions defaultRetryOptions;
+
+    RetryingNetwork(Network network) {
+        this.network = network;
+    }
+
+    RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Sets the retry options of requests that do not have their own.
+     * @param defaultRetryOptions retry options or null to not retry these requests
+     */
+    void setDefaultRetryOptions(RetryOptions defaultRetryOptions) {
+        this.defaultRetryOptions = defaultRetryOptions;
+    }
+
+    @Override
+    public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+        RetryOptions retryOptions = request instanceof JsonBodyRequestBase ? ((JsonBodyRequestBase<?>) request).getRetryOptions() : null;
+        if (retryOptions == null) {
+            retryOptions = defaultRetryOptions;
+        }
+        if (retryOptions == null || retryOptions.getMaxRetries() <= 0 || !(retryOptions.isRetryNonIdempotentMethods() || isIdempotent(request.getMethod()))) {
+            return network.performRequest(request);
+        }
+
+        RetryBudget retryBudget = this.retryBudget;
+        retryBudget.onRequest();
+        for (int retry = 0; ; retry++) {
+            VolleyError error;
+            try {
+                return network.performRequest(request);
+            } catch (VolleyError e) {
+                error = e;
+            }
+
+            if (retry >= retryOptions.getMaxRetries() || request.isCanceled() || !isRetryable(error, retryOptions)) {
+                throw error;
+            }
+            long delay = getDelay(retryOptions, retry, error.networkResponse);
+            if (delay < 0 || !retryBudget.tryRetry()) {
+                throw error;
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw error;
+            }
+            if (request.isCanceled()) {
+                throw error;
+            }
+        }
+    }
+
+    private static boolean isIdempotent(int method) {
+        return method != Request.Method.POST && method != Request.Method.PATCH && method != Request.Method.DEPRECATED_GET_OR_POST;
+    }
+
+    private static boolean isRetryable(VolleyError error, RetryOptions retryOptions) {
+        if (error.networkResponse == null) {
+            return retryOptions.isRetryOnNetworkErrors();
+        }
+
+        Integer[] retryableStatusCodes = retryOptions.getRetryableStatusCodes();
+        if (retryableStatusCodes != null) {
+            for (Integer statusCode : retryableStatusCodes) {
+                if (statusCode != null && statusCode == error.networkResponse.statusCode) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the delay before a retry.
+     * @return delay in milliseconds or -1 if the server asks for a longer delay than the maximum backoff
+     */
+    private long getDelay(RetryOptions retryOptions, int retry, NetworkResponse response) {
+        double backoff = Math.min(retryOptions.getMaxBackoff(), retryOptions.getInitialBackoff() * Math.pow(retryOptions.getBackoffMultiplier(), retry));
+        double jitter = Math.max(0, Math.min(1, retryOptions.getJitter()));
+        long delay;
+        synchronized (random) {
+            delay = (long) (backoff * (1 - jitter * random.nextDouble()));
+        }
+
+        if (retryOptions.isRetryAfterHonoured() && response != null && response.headers != null) {
+            long retryAfter = parseRetryAfter(response.headers.get(RETRY_AFTER_HEADER));
+            if (retryAfter > retryOptions.getMaxBackoff()) {
+                return -1;
+            }
+            delay = Math.max(delay, retryAfter);
+        }
+        return delay;
+    }
+
+    /**
+     * Parses a Retry-After header, which is either a number of seconds or an HTTP date.
+     * @return delay in milliseconds or 0 if there is no valid header
+     */
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException e) {
+            long retryAt = HttpHeaderParser.parseDateAsEpoch(retryAfter);
+            return retryAt > 0 ? Math.max(0, retryAt - System.currentTimeMillis()) : 0;
+        }
+    }
+}
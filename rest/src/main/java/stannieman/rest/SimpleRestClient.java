@@ -1,9 +1,5 @@
 package stannieman.rest;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.RetryPolicy;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import stannieman.commonservices.models.IHasDataAndSuccessState;
 import stannieman.rest.models.ErrorResponseDataBase;
@@ -16,66 +12,79 @@ import stannieman.rest.models.RestResult;
  */
 public final class SimpleRestClient extends RestClientBase {
 
-    SimpleRestClient(ObjectMapper objectMapper, RequestQueue requestQueue, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, RetryPolicy retryPolicy) {
-        super(objectMapper, requestQueue, schema, host, port, apiBasePath, endpointPath, timeout, retryPolicy);
+    SimpleRestClient(JsonCodecCache jsonCodecCache, RequestScheduler requestScheduler, Scheme schema, String host, int port, String apiBasePath, String endpointPath, long timeout, int bodyCompressionThreshold, ResponseObjectCache responseObjectCache, RequestCoalescer requestCoalescer, HedgeBudget hedgeBudget, IRequestEventListener requestEventListener, RequestMetrics requestMetrics) {
+        super(jsonCodecCache, requestScheduler, schema, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetrics);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> get(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doSimpleRequest(Request.Method.GET, requestProperties);
+        return doSimpleRequest(HttpMethod.GET, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> post(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doSimpleRequest(Request.Method.POST, requestProperties);
+        return doSimpleRequest(HttpMethod.POST, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> put(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doSimpleRequest(Request.Method.PUT, requestProperties);
+        return doSimpleRequest(HttpMethod.PUT, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> patch(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
-        return doSimpleRequest(Request.Method.PATCH, requestProperties);
+        return doSimpleRequest(HttpMethod.PATCH, requestProperties);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void getAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestAsync(Request.Method.GET, requestProperties, requestResponseListener);
+        doSimpleRequestAsync(HttpMethod.GET, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void postAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestAsync(Request.Method.POST, requestProperties, requestResponseListener);
+        doSimpleRequestAsync(HttpMethod.POST, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void putAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestAsync(Request.Method.PUT, requestProperties, requestResponseListener);
+        doSimpleRequestAsync(HttpMethod.PUT, requestProperties, requestResponseListener);
     }
 
     @Override
     public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void patchAsync(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        doRequestAsync(Request.Method.PATCH, requestProperties, requestResponseListener);
+        doSimpleRequestAsync(HttpMethod.PATCH, requestProperties, requestResponseListener);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doRequestAsync(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-        new DoRequestAsyncTask<>(method, requestProperties, requestResponseListener).execute();
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> getFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.GET, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> postFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.POST, requestProperties);
     }
 
-    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doSimpleRequest(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> putFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.PUT, requestProperties);
+    }
+
+    @Override
+    public <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> patchFuture(RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doSimpleRequestFuture(HttpMethod.PATCH, requestProperties);
+    }
+
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doSimpleRequest(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
         return doRequest(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
     }
 
-    private class DoRequestAsyncTask<SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> extends DoRequestAsyncTaskBase<SuccessResponseDataType, ErrorResponseDataType> {
-        DoRequestAsyncTask(int method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
-            super(method, requestProperties, requestResponseListener);
-        }
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> void doSimpleRequestAsync(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties, IRequestResponseListener<SuccessResponseDataType, ErrorResponseDataType> requestResponseListener) {
+        doRequestAsync(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders(), requestResponseListener);
+    }
 
-        @Override
-        protected IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>> doInBackground(Void... voids) {
-            return doSimpleRequest(method, requestProperties);
-        }
+    private <SuccessResponseDataType, ErrorResponseDataType extends ErrorResponseDataBase> RestFuture<IHasDataAndSuccessState<RestResult<SuccessResponseDataType, ErrorResponseDataType>>> doSimpleRequestFuture(HttpMethod method, RequestProperties<SuccessResponseDataType, ErrorResponseDataType> requestProperties) {
+        return doRequestFuture(method, requestProperties, requestProperties.getQueryParameters(), requestProperties.getHeaders());
     }
 }
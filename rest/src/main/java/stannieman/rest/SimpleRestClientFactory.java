@@ -20,10 +20,12 @@ public final class SimpleRestClientFactory extends RestClientFactoryBase impleme
     @Override
     public IRestClient getRestClient(String endpointPath) {
         configLock.lock();
-        IRestClient client = new SimpleRestClient(objectMapper, requestQueue, scheme, host, port, apiBasePath, endpointPath, timeout, retryPolicy);
-        configLock.unlock();
-
-        return client;
+        try {
+            return new SimpleRestClient(jsonCodecCache, requestScheduler, scheme, host, port, apiBasePath, endpointPath, timeout, bodyCompressionThreshold, responseObjectCache, requestCoalescer, hedgeBudget, requestEventListener, requestMetricsEnabled ? new RequestMetrics() : null);
+        }
+        finally {
+            configLock.unlock();
+        }
     }
 
     @Override
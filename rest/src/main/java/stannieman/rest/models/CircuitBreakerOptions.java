@@ -0,0 +1,132 @@
+package stannieman.rest.models;
+
+/**
+ * Class to hold info about when the circuit breaker of a host opens and closes.
+ * The breaker keeps the outcomes of the last window size requests to a host. When at least the minimum number of requests
+ * is recorded and the rate of failed or slow requests reaches its threshold, the breaker opens and requests fail immediately.
+ * After the open duration a limited number of probe requests are let through: if they all succeed the breaker closes, otherwise it opens again.
+ */
+public final class CircuitBreakerOptions {
+    private int windowSize = 50;
+    private int minRequestCount = 20;
+    private double failureRateThreshold = 0.5;
+    private double slowRequestRateThreshold = 1;
+    private long slowRequestDuration = 5000;
+    private long openDuration = 10000;
+    private int probeCount = 3;
+
+    /**
+     * Gets the number of recent requests of which the outcomes are kept.
+     * @return window size
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the number of recent requests of which the outcomes are kept. The default is 50.
+     * @param windowSize window size
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Gets the minimum number of recorded requests before the breaker can open.
+     * @return minimum number of requests
+     */
+    public int getMinRequestCount() {
+        return minRequestCount;
+    }
+
+    /**
+     * Sets the minimum number of recorded requests before the breaker can open. The default is 20.
+     * @param minRequestCount minimum number of requests
+     */
+    public void setMinRequestCount(int minRequestCount) {
+        this.minRequestCount = minRequestCount;
+    }
+
+    /**
+     * Gets the rate of failed requests at which the breaker opens.
+     * @return failure rate between 0 and 1
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Sets the rate of failed requests at which the breaker opens.
+     * Requests that fail without a response, get a 429 or 5xx response or time out are failed. The default is 0.5.
+     * @param failureRateThreshold failure rate between 0 and 1
+     */
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * Gets the rate of slow requests at which the breaker opens.
+     * @return slow request rate between 0 and 1
+     */
+    public double getSlowRequestRateThreshold() {
+        return slowRequestRateThreshold;
+    }
+
+    /**
+     * Sets the rate of slow requests at which the breaker opens. The default is 1, so only a host where every request is slow.
+     * @param slowRequestRateThreshold slow request rate between 0 and 1
+     */
+    public void setSlowRequestRateThreshold(double slowRequestRateThreshold) {
+        this.slowRequestRateThreshold = slowRequestRateThreshold;
+    }
+
+    /**
+     * Gets the duration above which a request is slow.
+     * @return slow request duration in milliseconds
+     */
+    public long getSlowRequestDuration() {
+        return slowRequestDuration;
+    }
+
+    /**
+     * Sets the duration above which a request is slow. The default is 5000 ms.
+     * @param slowRequestDuration slow request duration in milliseconds
+     */
+    public void setSlowRequestDuration(long slowRequestDuration) {
+        this.slowRequestDuration = slowRequestDuration;
+    }
+
+    /**
+     * Gets the time the breaker stays open before probe requests are let through.
+     * @return open duration in milliseconds
+     */
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Sets the time the breaker stays open before probe requests are let through. The default is 10000 ms.
+     * @param openDuration open duration in milliseconds
+     */
+    public void setOpenDuration(long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Gets the number of probe requests that are let through when the breaker is half open.
+     * @return number of probe requests
+     */
+    public int getProbeCount() {
+        return probeCount;
+    }
+
+    /**
+     * Sets the number of probe requests that are let through when the breaker is half open.
+     * Other requests keep failing immediately until the probes succeeded, so a recovering host does not get every waiting request at once.
+     * The default is 3.
+     * @param probeCount number of probe requests
+     */
+    public void setProbeCount(int probeCount) {
+        this.probeCount = probeCount;
+    }
+}
@@ -0,0 +1,19 @@
+package stannieman.rest.models;
+
+/**
+ * An enum of the states of the circuit breaker of a host.
+ */
+public enum CircuitState {
+    /**
+     * Requests are sent and their outcomes are recorded.
+     */
+    CLOSED,
+    /**
+     * Requests fail immediately because too many recent requests failed or were slow.
+     */
+    OPEN,
+    /**
+     * A limited number of probe requests are sent to find out whether the host recovered.
+     */
+    HALF_OPEN
+}
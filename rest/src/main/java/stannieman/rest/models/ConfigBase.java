@@ -1,38 +1,23 @@
 package stannieman.rest.models;
 
 import com.android.volley.RequestQueue;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.android.volley.toolbox.BaseHttpStack;
 
-import stannieman.rest.Scheme;
-
-public abstract class ConfigBase {
-    private ObjectMapper objectMapper;
+/**
+ * Base of the configurations of the REST client factories that perform requests with Volley.
+ */
+public abstract class ConfigBase extends CoreConfigBase {
     private RequestQueue requestQueue;
-    private Scheme scheme;
-    private String host;
-    private int port;
-    private String apiBasePath;
-    private long timeout;
-
-    /**
-     * Gets the object mapper used for mapping objects to and from JSON.
-     * @return object mapper
-     */
-    public ObjectMapper getObjectMapper() {
-        return objectMapper;
-    }
-
-    /**
-     * Sets the object mapper used for mapping objects to and from JSON.
-     * If this property is null the REST client factory will create a new mapper.
-     * It is recommended to have only one object mapper in your application,
-     * so if you have more than one REST client factory you should
-     * create an object mapper yourself and specify it here.
-     * @param objectMapper object mapper
-     */
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
-    }
+    private BaseHttpStack httpStack;
+    private int networkThreadPoolSize;
+    private int maxRequestsPerHost;
+    private boolean adaptiveConcurrencyLimitEnabled;
+    private int maxQueuedRequestsPerHost;
+    private CircuitBreakerOptions circuitBreakerOptions;
+    private RetryOptions retryOptions;
+    private double retryBudgetRatio = 0.1;
+    private int retryBudgetMinRetriesPerSecond = 10;
+    private double hedgeBudgetRatio = 0.05;
 
     /**
      * Gets the request queue used for doing network requests.
@@ -55,82 +40,185 @@ public abstract class ConfigBase {
     }
 
     /**
-     * Gets the URI scheme.
-     * @return URI scheme
+     * Gets the HTTP stack used by the request queue the REST client factory creates.
+     * @return HTTP stack
+     */
+    public BaseHttpStack getHttpStack() {
+        return httpStack;
+    }
+
+    /**
+     * Sets the HTTP stack used by the request queue the REST client factory creates.
+     * If this property is null a HurlStack is used, which is what Volley uses by default.
+     * Use an OkHttpStack for a configurable connection pool and HTTP/2 multiplexing.
+     * This property is ignored when a request queue is specified.
+     * @param httpStack HTTP stack
+     */
+    public void setHttpStack(BaseHttpStack httpStack) {
+        this.httpStack = httpStack;
+    }
+
+    /**
+     * Gets the number of network dispatcher threads of the request queue the REST client factory creates.
+     * @return number of network threads
+     */
+    public int getNetworkThreadPoolSize() {
+        return networkThreadPoolSize;
+    }
+
+    /**
+     * Sets the number of network dispatcher threads of the request queue the REST client factory creates.
+     * This is the maximum number of requests that are performed at the same time.
+     * If this property is 0 or less the Volley default of 4 threads is used.
+     * This property is ignored when a request queue is specified.
+     * @param networkThreadPoolSize number of network threads
+     */
+    public void setNetworkThreadPoolSize(int networkThreadPoolSize) {
+        this.networkThreadPoolSize = networkThreadPoolSize;
+    }
+
+    /**
+     * Gets the maximum number of requests that are in flight at the same time for a host.
+     * @return maximum number of requests per host
+     */
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * Sets the maximum number of requests that are in flight at the same time for a host.
+     * Requests above this limit wait, ordered by priority, until a request for the same host finishes.
+     * Keeping this below the number of network threads leaves threads free for other hosts.
+     * If this property is 0 or less there is no limit.
+     * @param maxRequestsPerHost maximum number of requests per host
+     */
+    public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    /**
+     * Gets whether the maximum number of requests in flight for a host adapts to its round trip times and errors.
+     * @return whether the adaptive concurrency limit is enabled
+     */
+    public boolean isAdaptiveConcurrencyLimitEnabled() {
+        return adaptiveConcurrencyLimitEnabled;
+    }
+
+    /**
+     * Sets whether the maximum number of requests in flight for a host adapts to its round trip times and errors.
+     * The limit of a host grows while its requests succeed and shrinks when they fail, time out or get much slower,
+     * between 1 and the max requests per host, or 64 if that is not set.
+     * @param adaptiveConcurrencyLimitEnabled whether the adaptive concurrency limit is enabled
+     */
+    public void setAdaptiveConcurrencyLimitEnabled(boolean adaptiveConcurrencyLimitEnabled) {
+        this.adaptiveConcurrencyLimitEnabled = adaptiveConcurrencyLimitEnabled;
+    }
+
+    /**
+     * Gets the maximum number of requests that wait for a host because its concurrency limit is reached.
+     * @return maximum number of queued requests per host
+     */
+    public int getMaxQueuedRequestsPerHost() {
+        return maxQueuedRequestsPerHost;
+    }
+
+    /**
+     * Sets the maximum number of requests that wait for a host because its concurrency limit is reached.
+     * Requests above this limit fail immediately with REQUEST_REJECTED instead of waiting for a timeout.
+     * If this property is 0 or less there is no limit.
+     * This has no effect without a max requests per host or the adaptive concurrency limit.
+     * @param maxQueuedRequestsPerHost maximum number of queued requests per host
+     */
+    public void setMaxQueuedRequestsPerHost(int maxQueuedRequestsPerHost) {
+        this.maxQueuedRequestsPerHost = maxQueuedRequestsPerHost;
+    }
+
+    /**
+     * Gets when the circuit breaker of a host opens and closes.
+     * @return circuit breaker options or null if there is no circuit breaker
      */
-    public Scheme getScheme() {
-        return scheme;
+    public CircuitBreakerOptions getCircuitBreakerOptions() {
+        return circuitBreakerOptions;
     }
 
     /**
-     * Sets the URI scheme.
-     * @param scheme URI scheme
+     * Sets when the circuit breaker of a host opens and closes.
+     * While the breaker of a host is open its requests fail immediately with CIRCUIT_OPEN instead of waiting for a timeout.
+     * If this property is null, which is the default, there is no circuit breaker.
+     * @param circuitBreakerOptions circuit breaker options or null for no circuit breaker
      */
-    public void setScheme(Scheme scheme) {
-        this.scheme = scheme;
+    public void setCircuitBreakerOptions(CircuitBreakerOptions circuitBreakerOptions) {
+        this.circuitBreakerOptions = circuitBreakerOptions;
     }
 
     /**
-     * Gets the remote host.
-     * @return remote host
+     * Gets how requests are retried.
+     * @return retry options or null if requests are not retried
      */
-    public String getHost() {
-        return host;
+    public RetryOptions getRetryOptions() {
+        return retryOptions;
     }
 
     /**
-     * Sets the remote host.
-     * @param host remote host
+     * Sets how requests are retried, which request properties can override.
+     * If this property is null, which is the default, only requests with their own retry options are retried.
+     * Requests are only retried on a request queue the REST client factory creates,
+     * so this property is ignored when a request queue is specified.
+     * @param retryOptions retry options or null to not retry requests
      */
-    public void setHost(String host) {
-        this.host = host;
+    public void setRetryOptions(RetryOptions retryOptions) {
+        this.retryOptions = retryOptions;
     }
 
     /**
-     * Gets the port on which the API is exposed.
-     * @return port
+     * Gets the fraction of requests that can be retried by all clients of the REST client factory together.
+     * @return retry budget ratio
      */
-    public int getPort() {
-        return port;
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
     }
 
     /**
-     * Sets the port on which the API is exposed.
-     * @param port port
+     * Sets the fraction of requests that can be retried by all clients of the REST client factory together.
+     * This keeps retries from multiplying the load on a backend that is failing. The default is 0.1.
+     * @param retryBudgetRatio retry budget ratio
      */
-    public void setPort(int port) {
-        this.port = port;
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
     }
 
     /**
-     * Gets the base path of the API.
-     * @return base path of API
+     * Gets the number of retries per second that are allowed on top of the retry budget ratio.
+     * @return minimum number of retries per second
      */
-    public String getApiBasePath() {
-        return apiBasePath;
+    public int getRetryBudgetMinRetriesPerSecond() {
+        return retryBudgetMinRetriesPerSecond;
     }
 
     /**
-     * Sets the base path of the API.
-     * @param apiBasePath base path of API
+     * Sets the number of retries per second that are allowed on top of the retry budget ratio,
+     * so clients with little traffic can still retry. The default is 10.
+     * @param retryBudgetMinRetriesPerSecond minimum number of retries per second
      */
-    public void setApiBasePath(String apiBasePath) {
-        this.apiBasePath = apiBasePath;
+    public void setRetryBudgetMinRetriesPerSecond(int retryBudgetMinRetriesPerSecond) {
+        this.retryBudgetMinRetriesPerSecond = retryBudgetMinRetriesPerSecond;
     }
 
     /**
-     * Gets the network timeout.
-     * @return network timeout
+     * Gets the fraction of hedged requests that can send a duplicate request.
+     * @return hedge budget ratio
      */
-    public long getTimeout() {
-        return timeout;
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
     }
 
     /**
-     * Sets the network timeout.
-     * @param timeout network timeout
+     * Sets the fraction of hedged requests that can send a duplicate request,
+     * for all clients of the REST client factory together. This caps the extra load of hedging. The default is 0.05.
+     * If this property is 0 or less requests are never hedged.
+     * @param hedgeBudgetRatio hedge budget ratio
      */
-    public void setTimeout(long timeout) {
-        this.timeout = timeout;
+    public void setHedgeBudgetRatio(double hedgeBudgetRatio) {
+        this.hedgeBudgetRatio = hedgeBudgetRatio;
     }
 }
@@ -0,0 +1,80 @@
+package stannieman.rest.models;
+
+/**
+ * Class that represents the concurrency state of a host at one point in time.
+ */
+public final class HostConcurrencyStats {
+    private final String host;
+    private final int limit;
+    private final int inFlightCount;
+    private final int queuedCount;
+    private final long rejectedCount;
+    private final CircuitState circuitState;
+    private final long shortCircuitedCount;
+
+    public HostConcurrencyStats(String host, int limit, int inFlightCount, int queuedCount, long rejectedCount, CircuitState circuitState, long shortCircuitedCount) {
+        this.host = host;
+        this.limit = limit;
+        this.inFlightCount = inFlightCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+        this.circuitState = circuitState;
+        this.shortCircuitedCount = shortCircuitedCount;
+    }
+
+    /**
+     * Gets the host and port.
+     * @return host and port, like example.com:8080
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight for the host, which changes over time if the limit is adaptive.
+     * @return current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gets the number of requests in flight for the host.
+     * @return number of requests in flight
+     */
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    /**
+     * Gets the number of requests that wait for a free slot.
+     * @return queue depth
+     */
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * Gets the number of requests that were rejected because the queue of the host was full.
+     * @return number of rejected requests
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Gets the state of the circuit breaker of the host, which is always closed if no circuit breaker is configured.
+     * @return circuit state
+     */
+    public CircuitState getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * Gets the number of requests that failed immediately because the circuit breaker of the host was open.
+     * @return number of short circuited requests
+     */
+    public long getShortCircuitedCount() {
+        return shortCircuitedCount;
+    }
+}
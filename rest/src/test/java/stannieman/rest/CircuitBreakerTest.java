@@ -0,0 +1,174 @@
+package stannieman.rest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import stannieman.rest.models.CircuitBreakerOptions;
+import stannieman.rest.models.CircuitState;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CircuitBreakerTest {
+    private static final long OPEN_DURATION_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private CircuitBreaker circuitBreaker;
+    private long nowNanos;
+
+    @Before
+    public void setUp() {
+        CircuitBreakerOptions options = new CircuitBreakerOptions();
+        options.setWindowSize(4);
+        options.setMinRequestCount(2);
+        options.setFailureRateThreshold(0.5);
+        options.setSlowRequestDuration(1000);
+        options.setOpenDuration(1000);
+        options.setProbeCount(2);
+        circuitBreaker = new CircuitBreaker(options);
+        nowNanos = 0;
+    }
+
+    @Test
+    public void opensWhenTooManyRequestsFail() {
+        fail(acquire());
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        fail(acquire());
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+        assertEquals(1, circuitBreaker.getShortCircuitedCount());
+    }
+
+    @Test
+    public void opensWhenTooManyRequestsAreSlow() {
+        long permission = acquire();
+        circuitBreaker.onRequestFinished(permission, OPEN_DURATION_NANOS * 2, false, nowNanos);
+        permission = acquire();
+        circuitBreaker.onRequestFinished(permission, OPEN_DURATION_NANOS * 2, false, nowNanos);
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void closesWhenAllProbesSucceed() {
+        open();
+        long firstProbe = acquire();
+        long secondProbe = acquire();
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+
+        succeed(firstProbe);
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+        succeed(secondProbe);
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NOT_A_PROBE, acquire());
+    }
+
+    @Test
+    public void opensAgainWhenAProbeFails() {
+        open();
+        long firstProbe = acquire();
+        acquire();
+
+        fail(firstProbe);
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+    }
+
+    @Test
+    public void requestSentBeforeHalfOpenIsNotAProbe() {
+        long closedRequest = acquire();
+        open();
+        long firstProbe = acquire();
+        long secondProbe = acquire();
+
+        succeed(closedRequest);
+        succeed(firstProbe);
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+        succeed(secondProbe);
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void failedRequestSentBeforeHalfOpenDoesNotOpen() {
+        long closedRequest = acquire();
+        open();
+        acquire();
+
+        fail(closedRequest);
+
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void cancelledProbeGivesBackItsPermission() {
+        open();
+        long firstProbe = acquire();
+        acquire();
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+
+        circuitBreaker.onRequestIgnored(firstProbe);
+
+        assertNotEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+    }
+
+    @Test
+    public void cancelledRequestSentBeforeHalfOpenDoesNotGiveBackAProbe() {
+        long closedRequest = acquire();
+        open();
+        acquire();
+        acquire();
+
+        circuitBreaker.onRequestIgnored(closedRequest);
+
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+    }
+
+    @Test
+    public void probeOfEarlierHalfOpenPeriodIsNotCounted() {
+        open();
+        long staleProbe = acquire();
+        fail(acquire());
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        nowNanos += OPEN_DURATION_NANOS;
+        long firstProbe = acquire();
+        long secondProbe = acquire();
+
+        succeed(staleProbe);
+        succeed(firstProbe);
+        assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onRequestIgnored(staleProbe);
+        assertEquals(CircuitBreaker.NO_PERMISSION, circuitBreaker.tryAcquirePermission(nowNanos));
+        succeed(secondProbe);
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Opens the breaker and waits until it is half open at the next request.
+     */
+    private void open() {
+        fail(acquire());
+        fail(acquire());
+        assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+        nowNanos += OPEN_DURATION_NANOS;
+    }
+
+    private long acquire() {
+        long permission = circuitBreaker.tryAcquirePermission(nowNanos);
+        assertNotEquals(CircuitBreaker.NO_PERMISSION, permission);
+        return permission;
+    }
+
+    private void succeed(long permission) {
+        circuitBreaker.onRequestFinished(permission, FAST_NANOS, false, nowNanos);
+    }
+
+    private void fail(long permission) {
+        circuitBreaker.onRequestFinished(permission, FAST_NANOS, true, nowNanos);
+    }
+}
@@ -0,0 +1,67 @@
+package stannieman.rest;
+
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.NoCache;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import stannieman.commonservices.models.IHasDataAndSuccessState;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class KeyAuthRestClientTest {
+    private static final String KEY_PARAMETER_NAME = "api key";
+    private static final String KEY = "s3cr3t/+=*~\u00E9";
+    // The queue is never started, the clients are only used to build URIs.
+    private static final RequestScheduler REQUEST_SCHEDULER = new RequestScheduler(new RequestQueue(new NoCache(), null, 1, new ExecutorDelivery(new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    })), 0, false, 0, null);
+
+    @Test
+    public void keyIsFirstQueryParameter() {
+        List<AbstractMap.SimpleEntry<String, String>> queryParameters = Arrays.asList(
+                new AbstractMap.SimpleEntry<>("q", "a b"),
+                new AbstractMap.SimpleEntry<>("page", "2"));
+        List<AbstractMap.SimpleEntry<String, String>> queryParametersWithKey = new ArrayList<>();
+        queryParametersWithKey.add(new AbstractMap.SimpleEntry<>(KEY_PARAMETER_NAME, KEY));
+        queryParametersWithKey.addAll(queryParameters);
+
+        IHasDataAndSuccessState<String> uriResult = createClient(KEY_PARAMETER_NAME, KEY).getUriString(null, "items/%s", new String[] { "1" }, queryParameters);
+        IHasDataAndSuccessState<String> expectedUriResult = createSimpleClient().getUriString(null, "items/%s", new String[] { "1" }, queryParametersWithKey);
+
+        assertEquals(expectedUriResult.getData(), uriResult.getData());
+        assertEquals("https://example.com:443/api/things/items/1?api%20key=s3cr3t%2F%2B%3D%2A~%C3%A9&q=a%20b&page=2", uriResult.getData());
+    }
+
+    @Test
+    public void keyIsOnlyQueryParameterWithoutOtherParameters() {
+        IHasDataAndSuccessState<String> uriResult = createClient(KEY_PARAMETER_NAME, KEY).getUriString(null, null, null, null);
+
+        assertEquals("https://example.com:443/api/things?api%20key=s3cr3t%2F%2B%3D%2A~%C3%A9", uriResult.getData());
+    }
+
+    @Test
+    public void missingKeyFailsEveryRequest() {
+        assertFalse(createClient(KEY_PARAMETER_NAME, null).getUriString(null, null, null, null).isSuccess());
+        assertFalse(createClient(null, KEY).getUriString(null, null, null, null).isSuccess());
+    }
+
+    private static KeyAuthRestClient createClient(String keyParameterName, String key) {
+        return new KeyAuthRestClient(null, REQUEST_SCHEDULER, Scheme.HTTPS, "example.com", 443, "api", "things", 1000, 0, null, null, null, null, null, keyParameterName, key);
+    }
+
+    private static SimpleRestClient createSimpleClient() {
+        return new SimpleRestClient(null, REQUEST_SCHEDULER, Scheme.HTTPS, "example.com", 443, "api", "things", 1000, 0, null, null, null, null, null);
+    }
+}